@@ -2,6 +2,8 @@ package com.trimblecars.leasemanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -9,6 +11,8 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class LeasemanagementApplication {
 
 	public static void main(String[] args)  {
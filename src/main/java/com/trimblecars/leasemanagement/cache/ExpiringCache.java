@@ -0,0 +1,102 @@
+package com.trimblecars.leasemanagement.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Size-bounded, thread-safe cache whose entries carry their own expiry instant.
+ * Expired entries are dropped on read and swept whenever the cache reaches its bound.
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void forEachLiveKey(Consumer<K> action) {
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt() > now) {
+                action.accept(key);
+            }
+        });
+    }
+
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private void makeRoom() {
+        evictExpired();
+        if (entries.size() < maxSize) {
+            return;
+        }
+        // Still full of live entries: drop an arbitrary tenth rather than tracking recency on every read.
+        int toRemove = Math.max(1, maxSize / 10);
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
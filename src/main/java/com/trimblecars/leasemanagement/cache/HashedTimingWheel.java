@@ -0,0 +1,104 @@
+package com.trimblecars.leasemanagement.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: timeouts are hashed into one of {@code wheelSize} buckets by their deadline tick,
+ * so scheduling and cancelling are O(1) and each {@link #advance} only visits the buckets for the ticks
+ * that elapsed. Timeouts further out than one rotation simply stay in their bucket until their tick comes
+ * round. The wheel is passive: the owner calls {@link #advance} on its own clock, typically once per tick.
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive.");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+    }
+
+    public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        // Never hash into a tick that has already been processed, or the timeout would wait a full rotation.
+        tick = Math.max(tick, currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(item, tick);
+        buckets[(int) (tick & mask)].add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Expires every timeout whose deadline is at or before {@code nowMillis}. Callbacks run after the wheel's
+     * lock is released, so they may schedule new timeouts.
+     */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            // After a long pause, one rotation's worth of buckets already covers every timeout.
+            long from = Math.max(currentTick + 1, target - mask);
+            for (long tick = from; tick <= target; tick++) {
+                Iterator<Timeout<T>> iterator = buckets[(int) (tick & mask)].iterator();
+                while (iterator.hasNext()) {
+                    Timeout<T> timeout = iterator.next();
+                    if (timeout.cancelled) {
+                        iterator.remove();
+                        pending--;
+                    } else if (timeout.deadlineTick <= target) {
+                        iterator.remove();
+                        pending--;
+                        expired.add(timeout.item);
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, target);
+        }
+        expired.forEach(onExpired);
+    }
+
+    /**
+     * Number of scheduled timeouts not yet swept, including cancelled ones whose bucket has not come round.
+     */
+    public synchronized int pending() {
+        return pending;
+    }
+
+    public static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
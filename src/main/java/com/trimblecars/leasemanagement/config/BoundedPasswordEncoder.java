@@ -0,0 +1,119 @@
+package com.trimblecars.leasemanagement.config;
+
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a fixed, CPU-sized pool with a bounded queue so that bursts of
+ * logins or registrations cannot occupy every request thread. When the queue is full the
+ * caller gets a {@link ServiceBusyException} immediately instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        long start = System.nanoTime();
+        try {
+            Future<T> future;
+            try {
+                future = executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new ServiceBusyException("Too many concurrent authentication requests, please retry shortly.");
+            }
+
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                rejected.increment();
+                throw new ServiceBusyException("Authentication timed out under load, please retry shortly.");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceBusyException("Authentication was interrupted.");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Password hashing failed", e.getCause());
+            }
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.trimblecars.leasemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.dto.ApiResponse;
+import com.trimblecars.leasemanagement.service.idempotency.IdempotencyService;
+import com.trimblecars.leasemanagement.service.idempotency.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the configured POST endpoints safe to retry: a request carrying an {@code Idempotency-Key} header
+ * runs once, and repeats of it get the original response back with {@code Idempotent-Replayed: true}.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    static final String KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final Set<String> paths;
+    private final long inFlightWaitMillis;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService, ObjectMapper objectMapper,
+                             @Value("${idempotency.paths:/api/customers/lease/start,/api/customers/lease/end,/api/auth/register}") List<String> paths,
+                             @Value("${idempotency.in-flight-wait-ms:10000}") long inFlightWaitMillis) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.paths = Set.copyOf(paths);
+        this.inFlightWaitMillis = inFlightWaitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && request.getHeader(KEY_HEADER) != null
+                && paths.contains(request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String clientKey = request.getHeader(KEY_HEADER);
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, 400, KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+        String key = IdempotencyService.scopedKey(request.getHeader("Authorization"), request.getMethod(),
+                request.getRequestURI(), clientKey);
+
+        // Read in full up front, so the stored and the replayed fingerprints cover the same bytes whatever
+        // the handler reads.
+        byte[] body = readBody(request);
+        String fingerprint = IdempotencyService.fingerprint(request.getQueryString(), body);
+
+        StoredResponse stored = idempotencyService.find(key);
+        if (stored != null) {
+            replay(request, response, stored, fingerprint);
+            return;
+        }
+        CompletableFuture<StoredResponse> running = idempotencyService.begin(key);
+        if (running != null) {
+            awaitAndReplay(request, response, running, fingerprint);
+            return;
+        }
+
+        HttpServletRequest bodyRequest = isForm(request) ? request : new CachedBodyRequest(request, body);
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        StoredResponse result = null;
+        try {
+            chain.doFilter(bodyRequest, cachingResponse);
+            result = new StoredResponse(fingerprint,
+                    cachingResponse.getStatus(), cachingResponse.getContentType(), cachingResponse.getContentAsByteArray());
+        } finally {
+            idempotencyService.complete(key, result);
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void awaitAndReplay(HttpServletRequest request, HttpServletResponse response,
+                                CompletableFuture<StoredResponse> running, String fingerprint) throws IOException {
+        try {
+            replay(request, response, running.get(inFlightWaitMillis, TimeUnit.MILLISECONDS), fingerprint);
+        } catch (TimeoutException ex) {
+            response.setHeader("Retry-After", "1");
+            writeError(response, 409, "A request with this " + KEY_HEADER + " is still in progress.");
+        } catch (ExecutionException ex) {
+            writeError(response, 500, "The original request failed, please retry.");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writeError(response, 503, "Request interrupted, please retry.");
+        }
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, StoredResponse stored,
+                        String fingerprint) throws IOException {
+        if (!fingerprint.equals(stored.fingerprint())) {
+            writeError(response, 422, KEY_HEADER + " was already used for a different request.");
+            return;
+        }
+        idempotencyService.recordReplay();
+        logger.debug("Replaying stored response for {} {}", request.getMethod(), request.getRequestURI());
+        response.setStatus(stored.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiResponse<>(false, null, message));
+    }
+
+    // The container parses a form body into parameters on first access and the stream is gone after that,
+    // so forms are fingerprinted by their parameters and passed on unwrapped.
+    private static byte[] readBody(HttpServletRequest request) throws IOException {
+        if (!isForm(request)) {
+            return request.getInputStream().readAllBytes();
+        }
+        StringBuilder form = new StringBuilder();
+        for (Map.Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+            for (String value : parameter.getValue()) {
+                if (!form.isEmpty()) {
+                    form.append('&');
+                }
+                form.append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return form.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    // Hands the already-read body to the handler.
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The body is already buffered, so everything is available at once.
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.trimblecars.leasemanagement.config;
 
+import com.trimblecars.leasemanagement.service.user.TokenRevocationService;
+import com.trimblecars.leasemanagement.service.user.UserRevocationCheck;
 import com.trimblecars.leasemanagement.service.user.UserService;
 import com.trimblecars.leasemanagement.model.auth.User;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,10 +24,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final UserRevocationCheck revocationCheck;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService, UserRevocationCheck revocationCheck,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${security.jwt.stateless:false}") boolean stateless) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.revocationCheck = revocationCheck;
+        this.tokenRevocationService = tokenRevocationService;
+        this.stateless = stateless;
     }
 
 
@@ -49,10 +61,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username = null;
+        Claims claims;
 
         try {
-            username = jwtUtil.extractUsername(token);
+            claims = jwtUtil.extractClaims(token);
         } catch (ExpiredJwtException e) {
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token expired");
             return;
@@ -61,10 +73,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        if (tokenRevocationService.isRevoked(token)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revoked");
+            return;
+        }
+
+        String username = claims.getSubject();
+
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.findByEmail(username);
+            if (stateless) {
+                String role = claims.get("role", String.class);
+                if (role == null) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+                    return;
+                }
+                if (revocationCheck.isRevoked(username)) {
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "User no longer exists");
+                    return;
+                }
+                JwtPrincipal principal = new JwtPrincipal(claims.get("userId", String.class), username, role);
+                SecurityContextHolder.getContext().setAuthentication(new CustomAuthentication(principal, null, claims));
+            } else {
+                UserDetails userDetails = userService.findByEmail(username);
 
-            if (jwtUtil.validateToken(token)) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -74,4 +105,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.trimblecars.leasemanagement.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal built purely from verified JWT claims, used when stateless authentication is enabled.
+ */
+public class JwtPrincipal implements UserDetails {
+
+    private final String userId;
+    private final String email;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public JwtPrincipal(String userId, String email, String role) {
+        this.userId = userId;
+        this.email = email;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority(role));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
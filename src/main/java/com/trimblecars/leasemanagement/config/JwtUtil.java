@@ -1,16 +1,22 @@
 package com.trimblecars.leasemanagement.config;
 
+import com.trimblecars.leasemanagement.cache.ExpiringCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -23,6 +29,18 @@ public class JwtUtil {
 
     private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24 hours
 
+    // Built once; the parser is immutable and safe to share across request threads.
+    private static final JwtParser PARSER = Jwts.parserBuilder()
+            .setSigningKey(SECRET_KEY)
+            .build();
+
+    // Verified claims keyed by token digest, each entry living until the token's own exp.
+    private final ExpiringCache<String, Claims> verifiedClaims;
+
+    public JwtUtil(@Value("${security.jwt.claims-cache-size:10000}") int claimsCacheSize) {
+        this.verifiedClaims = new ExpiringCache<>(claimsCacheSize);
+    }
+
     public String generateToken(String userId, String username, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
@@ -36,12 +54,20 @@ public class JwtUtil {
                 .signWith(SECRET_KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
+
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String digest = digest(token);
+        Claims claims = verifiedClaims.get(digest);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = PARSER.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedClaims.put(digest, claims, expiration.getTime());
+        }
+        return claims;
     }
 
     public String extractUsername(String token) {
@@ -60,4 +86,13 @@ public class JwtUtil {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.trimblecars.leasemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.dto.ApiResponse;
+import com.trimblecars.leasemanagement.service.user.LoginThrottle;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleFilter.class);
+
+    private final LoginThrottle loginThrottle;
+    private final ObjectMapper objectMapper;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle, ObjectMapper objectMapper) {
+        this.loginThrottle = loginThrottle;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && request.getRequestURI().startsWith("/api/auth/login"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        long waitMillis = loginThrottle.tryAcquire(request.getParameter("email"), request.getRemoteAddr());
+        if (waitMillis > 0) {
+            logger.warn("Login attempt throttled for ip: {}", request.getRemoteAddr());
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf((waitMillis + 999) / 1000));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ApiResponse<>(false, null, "Too many login attempts, please retry later."));
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+}
@@ -1,5 +1,7 @@
 package com.trimblecars.leasemanagement.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -50,8 +52,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${security.password.hash-threads:0}") int threads,
+                                           @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.hash-timeout-ms:5000}") long timeoutMillis,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
@@ -1,21 +1,47 @@
 package com.trimblecars.leasemanagement.controller.admin;
 
 import com.trimblecars.leasemanagement.dto.ApiResponse;
+import com.trimblecars.leasemanagement.dto.BulkImportReport;
+import com.trimblecars.leasemanagement.dto.BulkLeaseReport;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest;
+import com.trimblecars.leasemanagement.dto.CursorPage;
+import com.trimblecars.leasemanagement.dto.StatementBatchReport;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
 import com.trimblecars.leasemanagement.exception.ResourceNotFoundException;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
 import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
 import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
 import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
 import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
-import com.trimblecars.leasemanagement.service.PdfService;
 import com.trimblecars.leasemanagement.service.admin.AdminService;
+import com.trimblecars.leasemanagement.service.admin.DataExportService;
+import com.trimblecars.leasemanagement.service.admin.ExportFormat;
+import com.trimblecars.leasemanagement.service.admin.LeaseReportFilter;
+import com.trimblecars.leasemanagement.service.admin.ReportFormat;
+import com.trimblecars.leasemanagement.service.admin.ReportJob;
+import com.trimblecars.leasemanagement.service.admin.ReportJobService;
+import com.trimblecars.leasemanagement.service.admin.StatementBatchService;
+import com.trimblecars.leasemanagement.service.customer.BulkLeaseService;
+import com.trimblecars.leasemanagement.service.user.RegistrationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -24,47 +50,207 @@ public class AdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final AdminService adminService;
 
-    private final PdfService pdfService;
 
+    private final RegistrationService registrationService;
+
+    private final BulkLeaseService bulkLeaseService;
+
+    private final DataExportService dataExportService;
+
+    private final ReportJobService reportJobService;
+
+    private final StatementBatchService statementBatchService;
 
-    public AdminController(AdminService adminService, PdfService pdfService) {
+
+    public AdminController(AdminService adminService, RegistrationService registrationService,
+                           BulkLeaseService bulkLeaseService, DataExportService dataExportService,
+                           ReportJobService reportJobService, StatementBatchService statementBatchService) {
         this.adminService = adminService;
-        this.pdfService = pdfService;
+        this.registrationService = registrationService;
+        this.bulkLeaseService = bulkLeaseService;
+        this.dataExportService = dataExportService;
+        this.reportJobService = reportJobService;
+        this.statementBatchService = statementBatchService;
     }
 
-
+    @GetMapping("/leases")
+    public ResponseEntity<ApiResponse<CursorPage<LeaseHistory>>> getLeaseHistories(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            CursorPage<LeaseHistory> page = adminService.getLeaseHistories(customerId, vehicleId, active,
+                    startedFrom, startedTo, cursor, size);
+            return ResponseEntity.ok(new ApiResponse<>(true, page, "Lease histories retrieved successfully."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
+    }
 
     @GetMapping("/leases/pdf")
-    public ResponseEntity<byte[]> downloadLeaseHistoryPdf() {
-        logger.info("Generating lease history PDF...");
+    public ResponseEntity<StreamingResponseBody> downloadLeaseHistoryPdf(
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedTo) {
+        logger.info("Streaming lease history PDF...");
 
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=lease_history_report.pdf");
+        headers.add(HttpHeaders.CONTENT_TYPE, "application/pdf");
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(dataExportService.leaseReportPdf(
+                        new LeaseReportFilter(customerId, vehicleId, active, startedFrom, startedTo)));
+    }
+
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<StreamingResponseBody> exportDataset(@PathVariable String dataset,
+                                                               @RequestParam(defaultValue = "ndjson") String format,
+                                                               @RequestHeader("Authorization") String token) {
+        logger.info("Exporting {} as {}.", dataset, format);
         try {
-            List<LeaseHistory> leaseHistories = adminService.getAllLeaseHistories();
-            if (leaseHistories.isEmpty()) {
-                logger.warn("No lease history found for generating PDF.");
-                return ResponseEntity.status(HttpStatus.NO_CONTENT)
-                        .body(null);
-            }
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            StreamingResponseBody body = dataExportService.export(dataset, exportFormat);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=" + dataset + "." + exportFormat.getExtension())
+                    .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+                    .body(body);
+        } catch (IllegalArgumentException ex) {
+            logger.error("Rejected export request: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-            byte[] pdfBytes = pdfService.generateLeaseHistoryPdf(leaseHistories);
+    @PostMapping("/reports/leases")
+    public ResponseEntity<ApiResponse<ReportJob>> submitLeaseReport(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "pdf") String format,
+            @RequestParam(required = false) String customerId,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startedTo) {
+        logger.info("Submitting lease history report job as {}.", format);
+        try {
+            ReportJob job = reportJobService.submit(
+                    new LeaseReportFilter(customerId, vehicleId, active, startedFrom, startedTo),
+                    ReportFormat.parse(format));
+            logger.info("Report job {} is {}.", job.getId(), job.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>(true, job, "Report job submitted."));
+        } catch (IllegalArgumentException ex) {
+            logger.error("Rejected report job: {}", ex.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=lease_history_report.pdf");
-            headers.add(HttpHeaders.CONTENT_TYPE, "application/pdf");
+    @GetMapping("/reports/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJob>> getReportJob(@PathVariable String jobId,
+                                                               @RequestHeader("Authorization") String token) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>(true, reportJobService.getJob(jobId), "Report job retrieved."));
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
+    }
 
-            logger.info("Lease history PDF generated successfully.");
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+    @GetMapping("/reports/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable String jobId,
+                                                                @RequestHeader("Authorization") String token,
+                                                                HttpServletRequest request) throws IOException {
+        ReportJob job;
+        try {
+            job = reportJobService.getJob(jobId);
+        } catch (ResourceNotFoundException ex) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Path file = job.getFile();
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (NoSuchFileException ex) {
+            // Purged from the cache since the job finished; the report has to be requested again.
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=lease_history_report." + job.getFormat().getExtension());
+        headers.add(HttpHeaders.CONTENT_TYPE, job.getFormat().getContentType());
+        headers.setContentLength(size);
 
+        // Tomcat's sendfile hands the file to the socket with FileChannel.transferTo after the headers go out.
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(out -> reportJobService.transferTo(file, out));
+    }
+
+    @PostMapping("/statements")
+    public ResponseEntity<ApiResponse<String>> generateStatements(@RequestParam String month,
+                                                                  @RequestHeader("Authorization") String token) {
+        logger.info("Starting statement batch for {}.", month);
+        YearMonth statementMonth;
+        try {
+            statementMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, "Month must be formatted as yyyy-MM."));
+        }
+        statementBatchService.submit(statementMonth);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>(true, statementMonth.toString(), "Statement batch started."));
+    }
+
+    @GetMapping("/statements/status")
+    public ResponseEntity<ApiResponse<StatementBatchReport>> getStatementBatchStatus(
+            @RequestHeader("Authorization") String token) {
+        StatementBatchReport report = statementBatchService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse<>(false, null, "No statement batch has run."));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, report, "Statement batch status retrieved."));
+    }
+
+    @PostMapping("/users/import")
+    public ResponseEntity<ApiResponse<BulkImportReport>> importUsers(InputStream body,
+                                                                    @RequestParam(defaultValue = "ndjson") String format,
+                                                                    @RequestHeader("Authorization") String token) {
+        logger.info("Starting bulk user import in {} format.", format);
+        try {
+            BulkImportReport report = registrationService.importUsers(body, format);
+            logger.info("Bulk user import finished: {} imported, {} failed.", report.getImported(), report.getFailed());
+            return ResponseEntity.ok(new ApiResponse<>(true, report, "Bulk import completed."));
+        } catch (IllegalArgumentException ex) {
+            logger.error("Rejected bulk user import: {}", ex.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            return ResponseEntity.status(503).body(new ApiResponse<>(false, null, ex.getMessage()));
         } catch (Exception ex) {
-            logger.error("Error while generating lease history PDF.", ex);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            logger.error("Bulk user import failed.", ex);
+            return ResponseEntity.internalServerError().body(new ApiResponse<>(false, null, "Unexpected error: " + ex.getMessage()));
         }
     }
+
     @PostMapping("/vehicles/register")
     public ResponseEntity<ApiResponse<VehicleRentalInfo>> registerVehicle(@RequestBody VehicleRentalInfo vehicle, @RequestParam String ownerId,@RequestHeader("Authorization") String token) {
         logger.info("Registering vehicle for ownerId: {}", ownerId);
@@ -95,11 +281,22 @@ public class AdminController {
     }
 
     @GetMapping("/vehicles")
-    public ResponseEntity<ApiResponse<List<VehicleRentalInfo>>> getAllVehicles(@RequestHeader("Authorization") String token) {
-        logger.info("Fetching all vehicles.");
-        List<VehicleRentalInfo> vehicles = adminService.getAllVehicles();
-        logger.info("Retrieved {} vehicles.", vehicles.size());
-        return ResponseEntity.ok(new ApiResponse<>(true, vehicles, "All vehicles retrieved successfully."));
+    public ResponseEntity<ApiResponse<CursorPage<VehicleRentalInfo>>> getAllVehicles(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) VehicleCurrentStatus status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching vehicles page.");
+        try {
+            CursorPage<VehicleRentalInfo> vehicles = adminService.getVehicles(status, type, make, ownerId, cursor, size);
+            logger.info("Retrieved {} vehicles.", vehicles.getItems().size());
+            return ResponseEntity.ok(new ApiResponse<>(true, vehicles, "Vehicles retrieved successfully."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
     }
 
     @DeleteMapping("/owners/{ownerId}")
@@ -116,11 +313,21 @@ public class AdminController {
     }
 
     @GetMapping("/owners")
-    public ResponseEntity<ApiResponse<List<VehicleOwnerInfo>>> getAllOwners(@RequestHeader("Authorization") String token) {
-        logger.info("Fetching all owners.");
-        List<VehicleOwnerInfo> owners = adminService.getAllOwners();
-        logger.info("Retrieved {} owners.", owners.size());
-        return ResponseEntity.ok(new ApiResponse<>(true, owners, "All owners retrieved successfully."));
+    public ResponseEntity<ApiResponse<CursorPage<VehicleOwnerInfo>>> getAllOwners(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching owners page.");
+        try {
+            CursorPage<VehicleOwnerInfo> owners = adminService.getOwners(email, city, verified, cursor, size);
+            logger.info("Retrieved {} owners.", owners.getItems().size());
+            return ResponseEntity.ok(new ApiResponse<>(true, owners, "Owners retrieved successfully."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
     }
 
     @DeleteMapping("/customers/{customerId}")
@@ -153,11 +360,21 @@ public class AdminController {
     }
 
     @GetMapping("/customers")
-    public ResponseEntity<ApiResponse<List<EndCustomer>>> getAllCustomers(@RequestHeader("Authorization") String token) {
-        logger.info("Fetching all customers.");
-        List<EndCustomer> customers = adminService.getAllCustomers();
-        logger.info("Retrieved {} customers.", customers.size());
-        return ResponseEntity.ok(new ApiResponse<>(true, customers, "All customers retrieved successfully."));
+    public ResponseEntity<ApiResponse<CursorPage<EndCustomer>>> getAllCustomers(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("Fetching customers page.");
+        try {
+            CursorPage<EndCustomer> customers = adminService.getCustomers(email, city, verified, cursor, size);
+            logger.info("Retrieved {} customers.", customers.getItems().size());
+            return ResponseEntity.ok(new ApiResponse<>(true, customers, "Customers retrieved successfully."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
     }
 
     @PostMapping("/leases/start")
@@ -185,4 +402,18 @@ public class AdminController {
             return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/leases/batch")
+    public ResponseEntity<ApiResponse<BulkLeaseReport>> processLeaseBatch(@RequestBody BulkLeaseRequest request,
+                                                                         @RequestHeader("Authorization") String token) {
+        try {
+            BulkLeaseReport report = bulkLeaseService.process(request.getOperations());
+            logger.info("Processed lease batch of {} operations.", request.getOperations().size());
+            return ResponseEntity.ok(new ApiResponse<>(true, report, "Lease batch processed by Admin."));
+        } catch (LeaseConflictException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        }
+    }
+}
@@ -2,17 +2,30 @@ package com.trimblecars.leasemanagement.controller.customer;
 
 import com.trimblecars.leasemanagement.config.JwtUtil;
 import com.trimblecars.leasemanagement.dto.ApiResponse;
+import com.trimblecars.leasemanagement.dto.BulkLeaseReport;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest;
+import com.trimblecars.leasemanagement.dto.LeaseHold;
+import com.trimblecars.leasemanagement.dto.VehicleSearchRequest;
+import com.trimblecars.leasemanagement.dto.VehicleSearchResult;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
 import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.customer.WaitlistEntry;
 import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.service.customer.BulkLeaseService;
 import com.trimblecars.leasemanagement.service.customer.EndCustomerService;
+import com.trimblecars.leasemanagement.service.customer.WaitlistService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -21,10 +34,15 @@ public class EndCustomerController {
     private static final Logger logger = LoggerFactory.getLogger(EndCustomerController.class);
 
     private final EndCustomerService customerService;
+    private final WaitlistService waitlistService;
+    private final BulkLeaseService bulkLeaseService;
     private final JwtUtil jwtUtil;
 
-    public EndCustomerController(EndCustomerService customerService, JwtUtil jwtUtil) {
+    public EndCustomerController(EndCustomerService customerService, WaitlistService waitlistService,
+                                 BulkLeaseService bulkLeaseService, JwtUtil jwtUtil) {
         this.customerService = customerService;
+        this.waitlistService = waitlistService;
+        this.bulkLeaseService = bulkLeaseService;
         this.jwtUtil = jwtUtil;
     }
 
@@ -56,16 +74,39 @@ public class EndCustomerController {
         }
     }
 
+    @GetMapping("/vehicles/search")
+    public ResponseEntity<ApiResponse<VehicleSearchResult>> searchVehicles(@ModelAttribute VehicleSearchRequest request,
+                                                                           @RequestHeader("Authorization") String token) {
+        try {
+            VehicleSearchResult result = customerService.searchVehicles(request);
+            logger.info("Vehicle search matched {} vehicles.", result.getTotal());
+            return ResponseEntity.ok(new ApiResponse<>(true, result, "Vehicle search completed."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            return ResponseEntity.status(503).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error searching vehicles.", ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to search vehicles: " + ex.getMessage()));
+        }
+    }
+
     @PostMapping("/lease/start")
     public ResponseEntity<ApiResponse<LeaseHistory>> startLease(
             @RequestHeader("Authorization") String token,
-            @RequestParam String vehicleId) {
+            @RequestParam String vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         try {
             String customerId = jwtUtil.extractUserId(token.substring(7));
             logger.info("Starting lease for customerId: {} with vehicleId: {}", customerId, vehicleId);
-            LeaseHistory lease = customerService.startLease(customerId, vehicleId);
+            LeaseHistory lease = customerService.startLease(customerId, vehicleId, endDate);
             logger.info("Lease started successfully for customerId: {} and vehicleId: {}", customerId, vehicleId);
             return ResponseEntity.ok(new ApiResponse<>(true, lease, "Lease started successfully."));
+        } catch (LeaseConflictException ex) {
+            logger.warn("Lease start conflicted for vehicleId: {}. Reason: {}", vehicleId, ex.getMessage());
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
         } catch (Exception ex) {
             logger.error("Error starting lease. Reason: {}", ex.getMessage(), ex);
             return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to start lease: " + ex.getMessage()));
@@ -73,6 +114,178 @@ public class EndCustomerController {
     }
 
 
+    @PostMapping("/lease/start-any")
+    public ResponseEntity<ApiResponse<LeaseHistory>> startLeaseForAny(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minSeatingCapacity,
+            @RequestParam(required = false) Double maxDailyPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            LeaseHistory lease = customerService.startLeaseForAny(customerId, type, minSeatingCapacity, maxDailyPrice, endDate);
+            logger.info("Lease started for customerId: {} on auto-assigned vehicleId: {}", customerId, lease.getVehicle().getId());
+            return ResponseEntity.ok(new ApiResponse<>(true, lease, "Lease started successfully."));
+        } catch (LeaseConflictException ex) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            return ResponseEntity.status(503).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error auto-assigning lease.", ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to start lease: " + ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/holds")
+    public ResponseEntity<ApiResponse<LeaseHold>> placeHold(
+            @RequestHeader("Authorization") String token,
+            @RequestParam String vehicleId) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            LeaseHold hold = customerService.placeHold(customerId, vehicleId);
+            logger.info("Hold {} placed on vehicleId: {} for customerId: {}", hold.getHoldId(), vehicleId, customerId);
+            return ResponseEntity.ok(new ApiResponse<>(true, hold, "Vehicle held until " + hold.getExpiresAt() + "."));
+        } catch (LeaseConflictException ex) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error placing hold on vehicleId: {}", vehicleId, ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to hold vehicle: " + ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<ApiResponse<LeaseHistory>> confirmHold(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String holdId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            LeaseHistory lease = customerService.confirmHold(holdId, customerId, endDate);
+            logger.info("Hold {} confirmed as lease {}", holdId, lease.getId());
+            return ResponseEntity.ok(new ApiResponse<>(true, lease, "Lease started successfully."));
+        } catch (LeaseConflictException ex) {
+            logger.warn("Hold {} could not be confirmed. Reason: {}", holdId, ex.getMessage());
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error confirming hold {}", holdId, ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to confirm hold: " + ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<ApiResponse<Void>> releaseHold(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String holdId) {
+        String customerId = jwtUtil.extractUserId(token.substring(7));
+        if (!customerService.releaseHold(holdId, customerId)) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(false, null, "Hold not found."));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, null, "Hold released."));
+    }
+
+    @PostMapping("/waitlist")
+    public ResponseEntity<ApiResponse<WaitlistEntry>> joinWaitlist(
+            @RequestHeader("Authorization") String token,
+            @RequestParam String type,
+            @RequestParam(required = false) Integer minSeatingCapacity,
+            @RequestParam(required = false) Double maxDailyPrice) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            WaitlistEntry entry = waitlistService.join(customerId, type, minSeatingCapacity, maxDailyPrice);
+            logger.info("Customer {} joined the waitlist for type {} as entry {}", customerId, type, entry.getId());
+            return ResponseEntity.ok(new ApiResponse<>(true, entry, "Joined the waitlist."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error joining waitlist.", ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to join waitlist: " + ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/waitlist")
+    public ResponseEntity<ApiResponse<List<WaitlistEntry>>> getWaitlistEntries(@RequestHeader("Authorization") String token) {
+        String customerId = jwtUtil.extractUserId(token.substring(7));
+        return ResponseEntity.ok(new ApiResponse<>(true, waitlistService.getEntries(customerId), "Waitlist entries retrieved."));
+    }
+
+    @DeleteMapping("/waitlist/{entryId}")
+    public ResponseEntity<ApiResponse<Void>> leaveWaitlist(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String entryId) {
+        String customerId = jwtUtil.extractUserId(token.substring(7));
+        if (!waitlistService.leave(entryId, customerId)) {
+            return ResponseEntity.status(404).body(new ApiResponse<>(false, null, "Waiting entry not found."));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, null, "Left the waitlist."));
+    }
+
+    @PostMapping("/bookings")
+    public ResponseEntity<ApiResponse<LeaseHistory>> bookVehicle(
+            @RequestHeader("Authorization") String token,
+            @RequestParam String vehicleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            logger.info("Booking vehicleId: {} for customerId: {} from {} to {}", vehicleId, customerId, startDate, endDate);
+            LeaseHistory booking = customerService.bookVehicle(customerId, vehicleId, startDate, endDate);
+            return ResponseEntity.ok(new ApiResponse<>(true, booking, "Vehicle booked successfully."));
+        } catch (LeaseConflictException ex) {
+            logger.warn("Booking conflicted for vehicleId: {}. Reason: {}", vehicleId, ex.getMessage());
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error booking vehicleId: {}", vehicleId, ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to book vehicle: " + ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/vehicles/free")
+    public ResponseEntity<ApiResponse<VehicleSearchResult>> findVehiclesFreeBetween(
+            @RequestHeader("Authorization") String token,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "asc") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            VehicleSearchResult result = customerService.findVehiclesFreeBetween(from, to, "desc".equalsIgnoreCase(sort), page, size);
+            logger.info("Found {} vehicles free from {} to {}.", result.getTotal(), from, to);
+            return ResponseEntity.ok(new ApiResponse<>(true, result, "Free vehicles retrieved."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            return ResponseEntity.status(503).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error finding free vehicles.", ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to find free vehicles: " + ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/vehicles/{vehicleId}/availability")
+    public ResponseEntity<ApiResponse<Boolean>> isVehicleFree(
+            @RequestHeader("Authorization") String token,
+            @PathVariable String vehicleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            boolean free = customerService.isVehicleFree(vehicleId, from, to);
+            return ResponseEntity.ok(new ApiResponse<>(true, free, free ? "Vehicle is free." : "Vehicle is booked."));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error checking availability for vehicleId: {}", vehicleId, ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to check availability: " + ex.getMessage()));
+        }
+    }
+
     @PutMapping("/update")
     public ResponseEntity<ApiResponse<EndCustomer>> updateCustomer(
             @RequestHeader("Authorization") String token,
@@ -96,12 +309,38 @@ public class EndCustomerController {
             LeaseHistory lease = customerService.endLease(leaseId);
             logger.info("Lease ended successfully with leaseId: {}", leaseId);
             return ResponseEntity.ok(new ApiResponse<>(true, lease, "Lease ended successfully."));
+        } catch (LeaseConflictException ex) {
+            logger.warn("Lease end conflicted for leaseId: {}. Reason: {}", leaseId, ex.getMessage());
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
         } catch (Exception ex) {
             logger.error("Error ending lease with leaseId: {}", leaseId, ex);
             return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to end lease: " + ex.getMessage()));
         }
     }
 
+    @PostMapping("/lease/batch")
+    public ResponseEntity<ApiResponse<BulkLeaseReport>> processLeaseBatch(
+            @RequestHeader("Authorization") String token,
+            @RequestBody BulkLeaseRequest request) {
+        try {
+            String customerId = jwtUtil.extractUserId(token.substring(7));
+            // Every operation in a customer's batch acts for that customer.
+            if (request.getOperations() != null) {
+                request.getOperations().stream().filter(Objects::nonNull)
+                        .forEach(operation -> operation.setCustomerId(customerId));
+            }
+            BulkLeaseReport report = bulkLeaseService.process(request.getOperations());
+            return ResponseEntity.ok(new ApiResponse<>(true, report, "Lease batch processed."));
+        } catch (LeaseConflictException ex) {
+            return ResponseEntity.status(409).body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("Error processing lease batch.", ex);
+            return ResponseEntity.status(500).body(new ApiResponse<>(false, null, "Failed to process lease batch: " + ex.getMessage()));
+        }
+    }
+
     @GetMapping("/history")
     public ResponseEntity<ApiResponse<List<LeaseHistory>>> getCustomerLeaseHistory(
             @RequestHeader("Authorization") String token) {
@@ -0,0 +1,39 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class BulkImportReport {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void rowRead() {
+        totalRows++;
+    }
+
+    public void rowsImported(int count) {
+        imported += count;
+    }
+
+    public void rowFailed(long line, String email, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, email, message));
+        }
+    }
+
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+
+    public record RowError(long line, String email, String message) {
+    }
+}
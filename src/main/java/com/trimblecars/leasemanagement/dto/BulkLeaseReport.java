@@ -0,0 +1,27 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class BulkLeaseReport {
+
+    private int succeeded;
+    private int failed;
+    private final List<ItemResult> results = new ArrayList<>();
+
+    public void itemSucceeded(int index, BulkLeaseRequest.Action action, String leaseId) {
+        succeeded++;
+        results.add(new ItemResult(index, action, true, leaseId, null));
+    }
+
+    public void itemFailed(int index, BulkLeaseRequest.Action action, String message) {
+        failed++;
+        results.add(new ItemResult(index, action, false, null, message));
+    }
+
+    public record ItemResult(int index, BulkLeaseRequest.Action action, boolean success, String leaseId, String message) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkLeaseRequest {
+
+    private List<Operation> operations = new ArrayList<>();
+
+    public enum Action {
+        START, END
+    }
+
+    @Getter
+    @Setter
+    public static class Operation {
+        private Action action;
+        private String customerId;
+        // START only.
+        private String vehicleId;
+        private LocalDateTime endDate;
+        // END only.
+        private String leaseId;
+    }
+}
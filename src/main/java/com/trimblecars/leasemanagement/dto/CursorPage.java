@@ -0,0 +1,53 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token for the page after this one,
+ * or null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int size;
+    private String nextCursor;
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only signals that
+     * another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> key) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, size, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, size, encodeCursor(key.apply(items.get(size - 1))));
+    }
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key a cursor was built from, or null for a missing cursor (the first page).
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid page cursor.");
+        }
+    }
+}
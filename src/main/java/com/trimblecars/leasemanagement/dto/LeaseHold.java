@@ -0,0 +1,15 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class LeaseHold {
+    private String holdId;
+    private String customerId;
+    private String vehicleId;
+    private LocalDateTime expiresAt;
+}
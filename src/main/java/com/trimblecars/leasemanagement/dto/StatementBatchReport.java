@@ -0,0 +1,27 @@
+package com.trimblecars.leasemanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Progress of a monthly statement batch. Counts include chunks finished by earlier, interrupted runs;
+ * the throughput only covers statements rendered by this run.
+ */
+@Getter
+@AllArgsConstructor
+public class StatementBatchReport {
+
+    public enum Status {
+        RUNNING, DONE, FAILED
+    }
+
+    private final String month;
+    private final Status status;
+    private final int chunks;
+    private final long statements;
+    private final int resumedFromChunk;
+    private final long elapsedMillis;
+    private final double statementsPerSecond;
+    private final String file;
+    private final String error;
+}
@@ -0,0 +1,24 @@
+package com.trimblecars.leasemanagement.dto;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class VehicleSearchRequest {
+    private String make;
+    private String model;
+    private String type;
+    private String fuelType;
+    private String transmission;
+    private Integer seatingCapacity;
+    private Boolean airConditioning;
+    private Boolean gpsEnabled;
+    private Boolean insuranceAvailable;
+    private VehicleCurrentStatus currentStatus = VehicleCurrentStatus.IDEAL;
+    private Double minPrice;
+    private Double maxPrice;
+    private int page = 0;
+    private int size = 20;
+}
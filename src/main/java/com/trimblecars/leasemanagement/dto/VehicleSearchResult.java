@@ -0,0 +1,19 @@
+package com.trimblecars.leasemanagement.dto;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class VehicleSearchResult {
+    private long total;
+    private int page;
+    private int size;
+    private List<VehicleRentalInfo> vehicles;
+    // Facet name -> value -> number of matches if that facet's own filter were changed to the value.
+    private Map<String, Map<String, Integer>> facets;
+}
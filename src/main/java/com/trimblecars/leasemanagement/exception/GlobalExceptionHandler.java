@@ -42,6 +42,28 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(LeaseConflictException.class)
+    public ResponseEntity<ApiResponse<?>> handleLeaseConflictException(LeaseConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                new ApiResponse<>(
+                        false,
+                        null,
+                        ex.getMessage()
+                )
+        );
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<?>> handleServiceBusyException(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                new ApiResponse<>(
+                        false,
+                        null,
+                        ex.getMessage()
+                )
+        );
+    }
+
     @ExceptionHandler(NullPointerException.class)
     public ResponseEntity<ApiResponse<?>> handleNullPointerException(NullPointerException ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
@@ -0,0 +1,9 @@
+package com.trimblecars.leasemanagement.exception;
+
+
+
+public class LeaseConflictException extends RuntimeException {
+    public LeaseConflictException(String message) {
+        super(message);
+    }
+}
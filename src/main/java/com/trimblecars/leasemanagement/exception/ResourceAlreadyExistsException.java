@@ -0,0 +1,9 @@
+package com.trimblecars.leasemanagement.exception;
+
+
+
+public class ResourceAlreadyExistsException extends RuntimeException {
+    public ResourceAlreadyExistsException(String message) {
+        super(message);
+    }
+}
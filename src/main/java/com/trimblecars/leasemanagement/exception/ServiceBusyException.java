@@ -0,0 +1,9 @@
+package com.trimblecars.leasemanagement.exception;
+
+
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
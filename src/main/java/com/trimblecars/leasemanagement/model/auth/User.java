@@ -1,11 +1,13 @@
 package com.trimblecars.leasemanagement.model.auth;
 
+import com.trimblecars.leasemanagement.service.user.UserCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +22,8 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheListener.class)
+@DynamicUpdate
 public class User implements UserDetails {
 
     @Id
@@ -50,6 +50,10 @@ public class EndCustomer {
     @Column(name = "active_leases")
     private int activeLeases;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<LeaseHistory> leaseHistory;
 }
\ No newline at end of file
@@ -27,9 +27,27 @@ public class LeaseHistory {
     @Column(name = "lease_start_date", nullable = false)
     private LocalDateTime leaseStartDate;
 
-    @Column(name = "lease_end_date", nullable = false)
+    @Column(name = "lease_end_date")
     private LocalDateTime leaseEndDate;
 
+    // Planned return for bookings and fixed-term leases; null means open-ended.
+    @Column(name = "scheduled_end_date")
+    private LocalDateTime scheduledEndDate;
+
+    // False while a future booking is waiting for its start; set once the vehicle is handed over.
+    @Column(name = "activated", nullable = false)
+    private boolean activated;
+
     @Column(name = "total_cost", nullable = false)
     private double totalCost;
+
+    // Stamp for report caching; bulk JPQL updates bypass the callbacks and set it themselves.
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
+    @PrePersist
+    @PreUpdate
+    protected void onChange() {
+        this.lastModified = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.trimblecars.leasemanagement.model.customer;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Entity
+@Table(name = "waitlist_entry", indexes = @Index(name = "idx_waitlist_status_created", columnList = "status, created_at"))
+public class WaitlistEntry {
+
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+
+    @Column(name = "customer_id", nullable = false)
+    private String customerId;
+
+    @Column(name = "vehicle_type", nullable = false, length = 50)
+    private String vehicleType;
+
+    @Column(name = "min_seating_capacity")
+    private Integer minSeatingCapacity;
+
+    @Column(name = "max_daily_price")
+    private Double maxDailyPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set once a released vehicle has been held for this customer.
+    @Column(name = "offered_vehicle_id")
+    private String offeredVehicleId;
+
+    @Column(name = "offered_hold_id")
+    private String offeredHoldId;
+}
@@ -0,0 +1,7 @@
+package com.trimblecars.leasemanagement.model.customer;
+
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED,
+    CANCELLED;
+}
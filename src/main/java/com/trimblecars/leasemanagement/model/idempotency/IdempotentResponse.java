@@ -0,0 +1,41 @@
+package com.trimblecars.leasemanagement.model.idempotency;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed response stored under its idempotency key, so a retried request can be answered without
+ * running again.
+ */
+@Data
+@Entity
+@Table(name = "idempotent_response", indexes = @Index(name = "idx_idempotent_response_expires", columnList = "expires_at"))
+public class IdempotentResponse {
+
+    // SHA-256 of the caller, method, path and client-supplied key.
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    // SHA-256 of the query string and body, to reject a key reused for a different request.
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(name = "body")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -1,5 +1,6 @@
 package com.trimblecars.leasemanagement.model.owner;
 
+import com.trimblecars.leasemanagement.service.owner.OwnerEmailListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -13,6 +14,7 @@ import java.util.UUID;
 @Data
 @Entity
 @Table(name = "vehicle_owner_info")
+@EntityListeners(OwnerEmailListener.class)
 public class VehicleOwnerInfo {
 
     @Id
@@ -1,6 +1,7 @@
 package com.trimblecars.leasemanagement.model.owner;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.trimblecars.leasemanagement.service.owner.VehicleAvailabilityListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -13,6 +14,7 @@ import java.util.UUID;
 @Setter
 @Data
 @Entity
+@EntityListeners(VehicleAvailabilityListener.class)
 @Table(name = "vehicle_rental_info")
 public class VehicleRentalInfo {
 
@@ -69,6 +71,10 @@ public class VehicleRentalInfo {
     @Column(name = "insurance_available")
     private boolean insuranceAvailable;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "owner_id", nullable = false)
     @JsonIgnore
@@ -3,9 +3,14 @@ package com.trimblecars.leasemanagement.repository;
 
 import com.trimblecars.leasemanagement.model.auth.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -16,4 +21,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
\ No newline at end of file
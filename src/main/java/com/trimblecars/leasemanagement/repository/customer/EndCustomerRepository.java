@@ -1,10 +1,22 @@
 package com.trimblecars.leasemanagement.repository.customer;
 
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EndCustomerRepository extends JpaRepository<EndCustomer, String> {
@@ -14,4 +26,42 @@ public interface EndCustomerRepository extends JpaRepository<EndCustomer, String
     Optional<EndCustomer> findByEmail(String email);
 
     boolean existsByDrivingLicenseNumber(String drivingLicenseNumber);
-}
\ No newline at end of file
+
+    @Query("select c from EndCustomer c " +
+            "where (:after is null or c.id > :after) " +
+            "and (:email is null or c.email like concat(:email, '%')) " +
+            "and (:city is null or c.city = :city) " +
+            "and (:verified is null or c.verified = :verified) " +
+            "order by c.id")
+    List<EndCustomer> findPage(@Param("email") String email,
+                               @Param("city") String city,
+                               @Param("verified") Boolean verified,
+                               @Param("after") String after,
+                               Pageable pageable);
+
+    @Query("select c.id from EndCustomer c where (:after is null or c.id > :after) order by c.id")
+    List<String> findIdsAfter(@Param("after") String after, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from EndCustomer c order by c.id")
+    Stream<EndCustomer> streamAllForExport();
+
+    // Locks in id order, so two batches over overlapping customers queue instead of deadlocking.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from EndCustomer c where c.id in :ids order by c.id")
+    List<EndCustomer> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("update EndCustomer c set c.activeLeases = c.activeLeases + 1, c.version = c.version + 1 " +
+            "where c.id = :id and c.activeLeases < :maxActiveLeases")
+    int incrementActiveLeases(@Param("id") String id, @Param("maxActiveLeases") int maxActiveLeases);
+
+    @Modifying
+    @Query("update EndCustomer c set c.activeLeases = c.activeLeases - 1, c.version = c.version + 1 " +
+            "where c.activeLeases > 0 and c.id = " +
+            "(select l.customer.id from LeaseHistory l where l.id = :leaseId and l.activated = true)")
+    int decrementActiveLeasesForLease(@Param("leaseId") String leaseId);
+}
@@ -2,10 +2,20 @@ package com.trimblecars.leasemanagement.repository.customer;
 
 import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LeaseHistoryRepository extends JpaRepository<LeaseHistory, String> {
@@ -16,4 +26,124 @@ public interface LeaseHistoryRepository extends JpaRepository<LeaseHistory, Stri
     List<LeaseHistory> findByCustomerId(String customerId);
 
     List<LeaseHistory> findByVehicleId(String vehicleId);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("update LeaseHistory l set l.leaseEndDate = :endDate, l.lastModified = :endDate " +
+            "where l.id = :id and l.leaseEndDate is null")
+    int closeLease(@Param("id") String id, @Param("endDate") LocalDateTime endDate);
+
+    @Modifying
+    @Query("update LeaseHistory l set l.activated = true, l.lastModified = :now " +
+            "where l.id = :id and l.activated = false and l.leaseEndDate is null")
+    int markActivated(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("select l.id as id, l.customer.id as customerId, l.vehicle.id as vehicleId, " +
+            "l.leaseStartDate as leaseStartDate, l.scheduledEndDate as scheduledEndDate, l.leaseEndDate as leaseEndDate " +
+            "from LeaseHistory l where l.leaseEndDate is null or l.leaseEndDate > :now")
+    Stream<LeaseInterval> streamCurrentAndFuture(@Param("now") LocalDateTime now);
+
+    @Query("select l.id as id, l.customer.id as customerId, l.vehicle.id as vehicleId, " +
+            "l.leaseStartDate as leaseStartDate, l.scheduledEndDate as scheduledEndDate, l.leaseEndDate as leaseEndDate " +
+            "from LeaseHistory l where l.activated = false and l.leaseEndDate is null and l.leaseStartDate <= :now " +
+            "and (l.scheduledEndDate is null or l.scheduledEndDate > :now)")
+    List<LeaseInterval> findDueBookings(@Param("now") LocalDateTime now);
+
+    // Bookings whose planned end passed before they could be handed over.
+    @Query("select l.id as id, l.customer.id as customerId, l.vehicle.id as vehicleId, " +
+            "l.leaseStartDate as leaseStartDate, l.scheduledEndDate as scheduledEndDate, l.leaseEndDate as leaseEndDate " +
+            "from LeaseHistory l where l.activated = false and l.leaseEndDate is null and l.scheduledEndDate <= :now")
+    List<LeaseInterval> findLapsedBookings(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update LeaseHistory l set l.leaseEndDate = l.scheduledEndDate, l.lastModified = :now " +
+            "where l.id = :id and l.activated = false and l.leaseEndDate is null")
+    int closeLapsedBooking(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("select l.id as id, l.customer.id as customerId, l.vehicle.id as vehicleId, " +
+            "l.leaseStartDate as leaseStartDate, l.scheduledEndDate as scheduledEndDate, l.leaseEndDate as leaseEndDate " +
+            "from LeaseHistory l where l.id in :ids")
+    List<LeaseInterval> findIntervalsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("select l from LeaseHistory l join fetch l.customer c join fetch l.vehicle v join fetch v.owner " +
+            "where (:after is null or l.id > :after) " +
+            "and (:customerId is null or c.id = :customerId) " +
+            "and (:vehicleId is null or v.id = :vehicleId) " +
+            "and (:active is null or (:active = true and l.leaseEndDate is null) " +
+            "or (:active = false and l.leaseEndDate is not null)) " +
+            "and (:startedFrom is null or l.leaseStartDate >= :startedFrom) " +
+            "and (:startedTo is null or l.leaseStartDate < :startedTo) " +
+            "order by l.id")
+    List<LeaseHistory> findPage(@Param("customerId") String customerId,
+                                @Param("vehicleId") String vehicleId,
+                                @Param("active") Boolean active,
+                                @Param("startedFrom") LocalDateTime startedFrom,
+                                @Param("startedTo") LocalDateTime startedTo,
+                                @Param("after") String after,
+                                Pageable pageable);
+
+    // Export: join-fetches every to-one association, so each row costs no further selects.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select l from LeaseHistory l join fetch l.customer join fetch l.vehicle v join fetch v.owner order by l.id")
+    Stream<LeaseHistory> streamAllForExport();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select l from LeaseHistory l join fetch l.customer c join fetch l.vehicle v join fetch v.owner " +
+            "where (:customerId is null or c.id = :customerId) " +
+            "and (:vehicleId is null or v.id = :vehicleId) " +
+            "and (:active is null or (:active = true and l.leaseEndDate is null) " +
+            "or (:active = false and l.leaseEndDate is not null)) " +
+            "and (:startedFrom is null or l.leaseStartDate >= :startedFrom) " +
+            "and (:startedTo is null or l.leaseStartDate < :startedTo) " +
+            "order by l.id")
+    Stream<LeaseHistory> streamForReport(@Param("customerId") String customerId,
+                                         @Param("vehicleId") String vehicleId,
+                                         @Param("active") Boolean active,
+                                         @Param("startedFrom") LocalDateTime startedFrom,
+                                         @Param("startedTo") LocalDateTime startedTo);
+
+    // Statements: every lease of the customers that was running at some point in [from, to).
+    @Query("select l from LeaseHistory l join fetch l.customer c join fetch l.vehicle v join fetch v.owner " +
+            "where c.id in :customerIds and l.leaseStartDate < :to " +
+            "and (l.leaseEndDate is null or l.leaseEndDate >= :from) " +
+            "order by l.leaseStartDate, l.id")
+    List<LeaseHistory> findForStatements(@Param("customerIds") Collection<String> customerIds,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    // Changes whenever a lease is added, removed or modified, so it identifies one state of the table.
+    @Query("select count(l) as leases, max(l.lastModified) as lastModified from LeaseHistory l")
+    DataVersion findDataVersion();
+
+    @Query("select count(l) > 0 from LeaseHistory l where l.vehicle.id = :vehicleId and l.leaseStartDate < :to " +
+            "and ((l.leaseEndDate is null and l.scheduledEndDate is null) " +
+            "or coalesce(l.leaseEndDate, l.scheduledEndDate) > :from)")
+    boolean existsOverlapping(@Param("vehicleId") String vehicleId,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to);
+
+    interface DataVersion {
+        long getLeases();
+
+        LocalDateTime getLastModified();
+    }
+
+    interface LeaseInterval {
+        String getId();
+
+        String getCustomerId();
+
+        String getVehicleId();
+
+        LocalDateTime getLeaseStartDate();
+
+        LocalDateTime getScheduledEndDate();
+
+        LocalDateTime getLeaseEndDate();
+    }
+}
@@ -0,0 +1,31 @@
+package com.trimblecars.leasemanagement.repository.customer;
+
+import com.trimblecars.leasemanagement.model.customer.WaitlistEntry;
+import com.trimblecars.leasemanagement.model.customer.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, String> {
+
+    List<WaitlistEntry> findByStatusOrderByCreatedAtAsc(WaitlistStatus status);
+
+    List<WaitlistEntry> findByCustomerIdOrderByCreatedAtDesc(String customerId);
+
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = com.trimblecars.leasemanagement.model.customer.WaitlistStatus.OFFERED, " +
+            "w.offeredVehicleId = :vehicleId, w.offeredHoldId = :holdId " +
+            "where w.id = :id and w.status = com.trimblecars.leasemanagement.model.customer.WaitlistStatus.WAITING")
+    int markOffered(@Param("id") String id, @Param("vehicleId") String vehicleId, @Param("holdId") String holdId);
+
+    @Modifying
+    @Query("update WaitlistEntry w set w.status = com.trimblecars.leasemanagement.model.customer.WaitlistStatus.CANCELLED " +
+            "where w.id = :id and w.customerId = :customerId " +
+            "and w.status = com.trimblecars.leasemanagement.model.customer.WaitlistStatus.WAITING")
+    int cancel(@Param("id") String id, @Param("customerId") String customerId);
+}
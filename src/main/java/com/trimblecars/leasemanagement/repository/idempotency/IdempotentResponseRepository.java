@@ -0,0 +1,22 @@
+package com.trimblecars.leasemanagement.repository.idempotency;
+
+import com.trimblecars.leasemanagement.model.idempotency.IdempotentResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotentResponseRepository extends JpaRepository<IdempotentResponse, String> {
+
+    @Query("select r from IdempotentResponse r where r.id = :id and r.expiresAt > :now")
+    Optional<IdempotentResponse> findLive(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from IdempotentResponse r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,9 +1,14 @@
 package com.trimblecars.leasemanagement.repository.owner;
 
 import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface VehicleOwnerRepository extends JpaRepository<VehicleOwnerInfo, String> {
@@ -11,4 +16,19 @@ public interface VehicleOwnerRepository extends JpaRepository<VehicleOwnerInfo,
     Optional<VehicleOwnerInfo> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("select o.email from VehicleOwnerInfo o")
+    Stream<String> streamAllEmails();
+
+    @Query("select o from VehicleOwnerInfo o " +
+            "where (:after is null or o.id > :after) " +
+            "and (:email is null or o.email like concat(:email, '%')) " +
+            "and (:city is null or o.city = :city) " +
+            "and (:verified is null or o.verified = :verified) " +
+            "order by o.id")
+    List<VehicleOwnerInfo> findPage(@Param("email") String email,
+                                    @Param("city") String city,
+                                    @Param("verified") Boolean verified,
+                                    @Param("after") String after,
+                                    Pageable pageable);
 }
\ No newline at end of file
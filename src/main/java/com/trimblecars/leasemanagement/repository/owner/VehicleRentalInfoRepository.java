@@ -2,10 +2,21 @@ package com.trimblecars.leasemanagement.repository.owner;
 
 import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
 import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VehicleRentalInfoRepository extends JpaRepository<VehicleRentalInfo, String> {
@@ -15,4 +26,49 @@ public interface VehicleRentalInfoRepository extends JpaRepository<VehicleRental
     List<VehicleRentalInfo> findByCurrentStatus(VehicleCurrentStatus status);
 
     List<VehicleRentalInfo> findLeaseHistoryById(String vehicleId);
+
+    @Query("select v from VehicleRentalInfo v join fetch v.owner")
+    Stream<VehicleRentalInfo> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select v from VehicleRentalInfo v join fetch v.owner order by v.id")
+    Stream<VehicleRentalInfo> streamAllForExport();
+
+    // Keyset page ordered by id; null filters and a null cursor match everything.
+    @Query("select v from VehicleRentalInfo v join fetch v.owner o " +
+            "where (:after is null or v.id > :after) " +
+            "and (:status is null or v.currentStatus = :status) " +
+            "and (:type is null or v.type = :type) " +
+            "and (:make is null or v.make = :make) " +
+            "and (:ownerId is null or o.id = :ownerId) " +
+            "order by v.id")
+    List<VehicleRentalInfo> findPage(@Param("status") VehicleCurrentStatus status,
+                                     @Param("type") String type,
+                                     @Param("make") String make,
+                                     @Param("ownerId") String ownerId,
+                                     @Param("after") String after,
+                                     Pageable pageable);
+
+    // Locks in id order, so two batches over overlapping vehicles queue instead of deadlocking.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select v from VehicleRentalInfo v where v.id in :ids order by v.id")
+    List<VehicleRentalInfo> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("update VehicleRentalInfo v set v.currentStatus = :to, v.version = v.version + 1 " +
+            "where v.id = :id and v.currentStatus = :from")
+    int transitionStatus(@Param("id") String id,
+                         @Param("from") VehicleCurrentStatus from,
+                         @Param("to") VehicleCurrentStatus to);
+
+    @Modifying
+    @Query("update VehicleRentalInfo v set v.currentStatus = :to, v.version = v.version + 1 " +
+            "where v.currentStatus = :from and v.id = " +
+            "(select l.vehicle.id from LeaseHistory l where l.id = :leaseId and l.activated = true)")
+    int transitionStatusForLease(@Param("leaseId") String leaseId,
+                                 @Param("from") VehicleCurrentStatus from,
+                                 @Param("to") VehicleCurrentStatus to);
 }
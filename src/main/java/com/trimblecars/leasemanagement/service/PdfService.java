@@ -6,57 +6,127 @@ import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.property.TextAlignment;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
 import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 @Service
 public class PdfService {
 
-    public byte[] generateLeaseHistoryPdf(List<LeaseHistory> leaseHistories) {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(outputStream);
+    // Rows laid out per flush of the large table; bounds how many cells are held at once.
+    static final int FLUSH_ROWS = 500;
+
+    private static final DateTimeFormatter STATEMENT_MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    /**
+     * Writes the lease history report straight to {@code out} as the leases are read. The table is an iText
+     * large table: every {@link #FLUSH_ROWS} rows it is laid out and the finished pages are written, so
+     * memory stays bounded and the first pages reach the client early. {@code afterFlush} runs after each
+     * flush, once the flushed rows are no longer referenced. The stream is flushed but not closed.
+     *
+     * @return the number of leases written
+     */
+    public long writeLeaseHistoryPdf(Iterator<LeaseHistory> leases, OutputStream out, Runnable afterFlush) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdfDocument = new PdfDocument(writer);
             Document document = new Document(pdfDocument);
-            
+
             Paragraph title = new Paragraph("Lease History Report")
                     .setTextAlignment(TextAlignment.CENTER)
                     .setFontSize(18);
             document.add(title);
 
-            
             document.add(new Paragraph("\n"));
 
-            
-            Table table = new Table(new float[]{1, 2, 2, 2}); // Adjust column widths
-            table.addCell("Lease ID");
-            table.addCell("Customer ID");
-            table.addCell("Vehicle ID");
-            table.addCell("Vehicle Name");
-            table.addCell("Lease Date");
-            table.addCell("End Date");
-
-        
-            for (LeaseHistory lease : leaseHistories) {
+            Table table = new Table(new float[]{3, 3, 3, 2, 2, 2}, true);
+            table.addHeaderCell("Lease ID");
+            table.addHeaderCell("Customer ID");
+            table.addHeaderCell("Vehicle ID");
+            table.addHeaderCell("Vehicle Name");
+            table.addHeaderCell("Lease Date");
+            table.addHeaderCell("End Date");
+            // A large table is added first and filled afterwards.
+            document.add(table);
+
+            long rows = 0;
+            while (leases.hasNext()) {
+                LeaseHistory lease = leases.next();
                 table.addCell(lease.getId());
                 table.addCell(lease.getCustomer().getId());
                 table.addCell(lease.getVehicle().getId());
-                table.addCell(lease.getVehicle().getVehicleName());
+                table.addCell(valueOf(lease.getVehicle().getVehicleName()));
                 table.addCell(lease.getLeaseStartDate().toString());
-                table.addCell(lease.getLeaseEndDate().toString());
+                table.addCell(lease.getLeaseEndDate() == null ? "Active" : lease.getLeaseEndDate().toString());
+                if (++rows % FLUSH_ROWS == 0) {
+                    table.flush();
+                    out.flush();
+                    afterFlush.run();
+                }
             }
+            table.complete();
+
+            document.close();
+            out.flush();
+            return rows;
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        }
+    }
 
-            // Add table to the document
+    /**
+     * Writes one customer's statement for {@code month}: every lease that was running at some point in
+     * the month, with its cost. The stream is flushed but not closed.
+     */
+    public void writeStatementPdf(EndCustomer customer, YearMonth month, List<LeaseHistory> leases,
+                                  OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
+            PdfDocument pdfDocument = new PdfDocument(writer);
+            Document document = new Document(pdfDocument);
+
+            document.add(new Paragraph("Monthly Statement")
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setFontSize(18));
+            document.add(new Paragraph("Period: " + month.format(STATEMENT_MONTH)));
+            document.add(new Paragraph("Customer: " + customer.getEmail() + " (" + customer.getId() + ")"));
+
+            Table table = new Table(new float[]{3, 3, 2, 2, 2});
+            table.addHeaderCell("Lease ID");
+            table.addHeaderCell("Vehicle");
+            table.addHeaderCell("Lease Date");
+            table.addHeaderCell("End Date");
+            table.addHeaderCell("Cost");
+            double total = 0;
+            for (LeaseHistory lease : leases) {
+                table.addCell(lease.getId());
+                table.addCell(valueOf(lease.getVehicle().getVehicleName()));
+                table.addCell(lease.getLeaseStartDate().toString());
+                table.addCell(lease.getLeaseEndDate() == null ? "Active" : lease.getLeaseEndDate().toString());
+                table.addCell(String.format(Locale.ROOT, "%.2f", lease.getTotalCost()));
+                total += lease.getTotalCost();
+            }
             document.add(table);
+            document.add(new Paragraph(String.format(Locale.ROOT, "Total: %.2f", total))
+                    .setTextAlignment(TextAlignment.RIGHT));
 
-            // Close the document
             document.close();
-
-            return outputStream.toByteArray();
+            out.flush();
         } catch (Exception e) {
-            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+            throw new RuntimeException("Error generating statement PDF: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private static String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -1,6 +1,7 @@
 package com.trimblecars.leasemanagement.service.admin;
 
 
+import com.trimblecars.leasemanagement.dto.CursorPage;
 import com.trimblecars.leasemanagement.exception.ResourceNotFoundException;
 import com.trimblecars.leasemanagement.model.admin.AdminUser;
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
@@ -13,27 +14,35 @@ import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository
 import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
 import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
 import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.owner.VehicleReleasedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class AdminService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final VehicleRentalInfoRepository vehicleRentalRepository;
     private final VehicleOwnerRepository vehicleOwnerRepository;
     private final EndCustomerRepository endCustomerRepository;
     private final LeaseHistoryRepository leaseHistoryRepository;
     private final AdminUserRepository adminUserRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdminService(VehicleRentalInfoRepository vehicleRentalRepository, VehicleOwnerRepository vehicleOwnerRepository, EndCustomerRepository endCustomerRepository, LeaseHistoryRepository leaseHistoryRepository, AdminUserRepository adminUserRepository) {
+    public AdminService(VehicleRentalInfoRepository vehicleRentalRepository, VehicleOwnerRepository vehicleOwnerRepository, EndCustomerRepository endCustomerRepository, LeaseHistoryRepository leaseHistoryRepository, AdminUserRepository adminUserRepository, ApplicationEventPublisher eventPublisher) {
         this.vehicleRentalRepository = vehicleRentalRepository;
         this.vehicleOwnerRepository = vehicleOwnerRepository;
         this.endCustomerRepository = endCustomerRepository;
         this.leaseHistoryRepository = leaseHistoryRepository;
         this.adminUserRepository = adminUserRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -56,8 +65,11 @@ public class AdminService {
         vehicleRentalRepository.deleteById(vehicleId);
     }
 
-    public List<VehicleRentalInfo> getAllVehicles() {
-        return vehicleRentalRepository.findAll();
+    public CursorPage<VehicleRentalInfo> getVehicles(VehicleCurrentStatus status, String type, String make, String ownerId,
+                                                     String cursor, int size) {
+        int pageSize = checkPageSize(size);
+        return CursorPage.of(vehicleRentalRepository.findPage(status, type, make, ownerId,
+                CursorPage.decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize, VehicleRentalInfo::getId);
     }
 
 
@@ -71,8 +83,10 @@ public class AdminService {
         vehicleOwnerRepository.deleteById(ownerId);
     }
 
-    public List<VehicleOwnerInfo> getAllOwners() {
-        return vehicleOwnerRepository.findAll();
+    public CursorPage<VehicleOwnerInfo> getOwners(String email, String city, Boolean verified, String cursor, int size) {
+        int pageSize = checkPageSize(size);
+        return CursorPage.of(vehicleOwnerRepository.findPage(email, city, verified,
+                CursorPage.decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize, VehicleOwnerInfo::getId);
     }
 
 
@@ -85,8 +99,13 @@ public class AdminService {
         }
 
         VehicleRentalInfo vehicle = vehicleOptional.get();
+        boolean released = status == VehicleCurrentStatus.IDEAL && vehicle.getCurrentStatus() != VehicleCurrentStatus.IDEAL;
         vehicle.setCurrentStatus(status);
-        return vehicleRentalRepository.save(vehicle);
+        VehicleRentalInfo saved = vehicleRentalRepository.save(vehicle);
+        if (released) {
+            eventPublisher.publishEvent(new VehicleReleasedEvent(vehicleId));
+        }
+        return saved;
     }
 
 
@@ -100,8 +119,10 @@ public class AdminService {
         endCustomerRepository.deleteById(customerId);
     }
 
-    public List<EndCustomer> getAllCustomers() {
-        return endCustomerRepository.findAll();
+    public CursorPage<EndCustomer> getCustomers(String email, String city, Boolean verified, String cursor, int size) {
+        int pageSize = checkPageSize(size);
+        return CursorPage.of(endCustomerRepository.findPage(email, city, verified,
+                CursorPage.decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize, EndCustomer::getId);
     }
 
 
@@ -120,7 +141,18 @@ public class AdminService {
         return lease;
     }
 
-    public List<LeaseHistory> getAllLeaseHistories() {
-        return leaseHistoryRepository.findAll();
+    public CursorPage<LeaseHistory> getLeaseHistories(String customerId, String vehicleId, Boolean active,
+                                                      LocalDateTime startedFrom, LocalDateTime startedTo,
+                                                      String cursor, int size) {
+        int pageSize = checkPageSize(size);
+        return CursorPage.of(leaseHistoryRepository.findPage(customerId, vehicleId, active, startedFrom, startedTo,
+                CursorPage.decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize, LeaseHistory::getId);
+    }
+
+    private static int checkPageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 }
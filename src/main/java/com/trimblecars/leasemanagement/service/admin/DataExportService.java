@@ -0,0 +1,240 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.PdfService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables to the client as NDJSON or CSV, and the lease history report as PDF. Rows come from a
+ * read-only repository stream with a JDBC fetch size and are written as they arrive, and the persistence
+ * context is cleared every {@link #CLEAR_INTERVAL} rows, so memory use does not depend on the size of the table.
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    static final int CLEAR_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final List<ExportColumn<LeaseHistory>> LEASE_COLUMNS = List.of(
+            new ExportColumn<>("id", LeaseHistory::getId),
+            new ExportColumn<>("customerId", lease -> lease.getCustomer().getId()),
+            new ExportColumn<>("customerEmail", lease -> lease.getCustomer().getEmail()),
+            new ExportColumn<>("vehicleId", lease -> lease.getVehicle().getId()),
+            new ExportColumn<>("registrationNumber", lease -> lease.getVehicle().getRegistrationNumber()),
+            new ExportColumn<>("leaseStartDate", LeaseHistory::getLeaseStartDate),
+            new ExportColumn<>("scheduledEndDate", LeaseHistory::getScheduledEndDate),
+            new ExportColumn<>("leaseEndDate", LeaseHistory::getLeaseEndDate),
+            new ExportColumn<>("activated", LeaseHistory::isActivated),
+            new ExportColumn<>("totalCost", LeaseHistory::getTotalCost));
+
+    static final List<ExportColumn<VehicleRentalInfo>> VEHICLE_COLUMNS = List.of(
+            new ExportColumn<>("id", VehicleRentalInfo::getId),
+            new ExportColumn<>("ownerId", vehicle -> vehicle.getOwner().getId()),
+            new ExportColumn<>("vehicleName", VehicleRentalInfo::getVehicleName),
+            new ExportColumn<>("registrationNumber", VehicleRentalInfo::getRegistrationNumber),
+            new ExportColumn<>("make", VehicleRentalInfo::getMake),
+            new ExportColumn<>("model", VehicleRentalInfo::getModel),
+            new ExportColumn<>("vehicleYear", VehicleRentalInfo::getVehicleYear),
+            new ExportColumn<>("type", VehicleRentalInfo::getType),
+            new ExportColumn<>("seatingCapacity", VehicleRentalInfo::getSeatingCapacity),
+            new ExportColumn<>("dailyRentalPrice", VehicleRentalInfo::getDailyRentalPrice),
+            new ExportColumn<>("fuelType", VehicleRentalInfo::getFuelType),
+            new ExportColumn<>("transmission", VehicleRentalInfo::getTransmission),
+            new ExportColumn<>("currentStatus", VehicleRentalInfo::getCurrentStatus));
+
+    static final List<ExportColumn<EndCustomer>> CUSTOMER_COLUMNS = List.of(
+            new ExportColumn<>("id", EndCustomer::getId),
+            new ExportColumn<>("email", EndCustomer::getEmail),
+            new ExportColumn<>("phoneNumber", EndCustomer::getPhoneNumber),
+            new ExportColumn<>("city", EndCustomer::getCity),
+            new ExportColumn<>("state", EndCustomer::getState),
+            new ExportColumn<>("country", EndCustomer::getCountry),
+            new ExportColumn<>("verified", EndCustomer::isVerified),
+            new ExportColumn<>("activeLeases", EndCustomer::getActiveLeases));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LeaseHistoryRepository leaseHistoryRepository;
+    private final VehicleRentalInfoRepository vehicleRepository;
+    private final EndCustomerRepository customerRepository;
+    private final PdfService pdfService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataExportService(LeaseHistoryRepository leaseHistoryRepository,
+                             VehicleRentalInfoRepository vehicleRepository,
+                             EndCustomerRepository customerRepository,
+                             PdfService pdfService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager) {
+        this.leaseHistoryRepository = leaseHistoryRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.customerRepository = customerRepository;
+        this.pdfService = pdfService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Returns a body that streams the dataset ({@code leases}, {@code vehicles} or {@code customers}) when the
+     * response is written. Arguments are validated here, before anything is sent.
+     */
+    public StreamingResponseBody export(String dataset, ExportFormat format) {
+        return switch (dataset.toLowerCase(Locale.ROOT)) {
+            case "leases" -> body("leases", leaseHistoryRepository::streamAllForExport, LEASE_COLUMNS, format);
+            case "vehicles" -> body("vehicles", vehicleRepository::streamAllForExport, VEHICLE_COLUMNS, format);
+            case "customers" -> body("customers", customerRepository::streamAllForExport, CUSTOMER_COLUMNS, format);
+            default -> throw new IllegalArgumentException("Unknown export dataset: " + dataset);
+        };
+    }
+
+    /**
+     * Returns a body that renders the lease history report for the matching leases as a PDF while reading them.
+     */
+    public StreamingResponseBody leaseReportPdf(LeaseReportFilter filter) {
+        return out -> writeLeaseReport(filter, ReportFormat.PDF, out);
+    }
+
+    /**
+     * Writes the lease history report for the matching leases to {@code out} in one read-only transaction,
+     * without closing it, and returns the number of leases written.
+     */
+    public long writeLeaseReport(LeaseReportFilter filter, ReportFormat format, OutputStream out) {
+        long startNanos = System.nanoTime();
+        Long rows = transactionTemplate.execute(status -> {
+            try (Stream<LeaseHistory> leases = leaseHistoryRepository.streamForReport(filter.customerId(),
+                    filter.vehicleId(), filter.active(), filter.startedFrom(), filter.startedTo())) {
+                return format == ReportFormat.PDF
+                        ? pdfService.writeLeaseHistoryPdf(leases.iterator(), out, entityManager::clear)
+                        : writeRows(leases, LEASE_COLUMNS, ExportFormat.CSV, out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        logger.info("Wrote lease history report of {} leases as {} in {} ms.", rows, format,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return rows;
+    }
+
+    private <E> StreamingResponseBody body(String dataset, Supplier<Stream<E>> query,
+                                           List<ExportColumn<E>> columns, ExportFormat format) {
+        return out -> {
+            long startNanos = System.nanoTime();
+            // The body is written on an async thread, outside the request's persistence context.
+            Long rows = transactionTemplate.execute(status -> {
+                try (Stream<E> stream = query.get()) {
+                    return writeRows(stream, columns, format, out);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            logger.info("Exported {} {} rows as {} in {} ms.", rows, dataset, format,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        };
+    }
+
+    <E> long writeRows(Stream<E> rows, List<ExportColumn<E>> columns, ExportFormat format, OutputStream out)
+            throws IOException {
+        return format == ExportFormat.CSV ? writeCsv(rows, columns, out) : writeNdjson(rows, columns, out);
+    }
+
+    private <E> long writeNdjson(Stream<E> rows, List<ExportColumn<E>> columns, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE));
+        // One object per line: the newline is the only separator between root values.
+        generator.setRootValueSeparator(null);
+        long count = 0;
+        for (Iterator<E> iterator = rows.iterator(); iterator.hasNext(); ) {
+            E row = iterator.next();
+            generator.writeStartObject();
+            for (ExportColumn<E> column : columns) {
+                generator.writeFieldName(column.name());
+                generator.writeObject(column.value().apply(row));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            afterRow(++count);
+        }
+        generator.flush();
+        return count;
+    }
+
+    private <E> long writeCsv(Stream<E> rows, List<ExportColumn<E>> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        for (int i = 0; i < columns.size(); i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+        long count = 0;
+        for (Iterator<E> iterator = rows.iterator(); iterator.hasNext(); ) {
+            E row = iterator.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columns.get(i).value().apply(row);
+                if (value != null) {
+                    writeCsvField(writer, value.toString());
+                }
+            }
+            writer.write("\r\n");
+            afterRow(++count);
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180: quote fields containing a delimiter, quote or line break, doubling embedded quotes.
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Rows already written are never needed again; dropping them keeps the persistence context bounded.
+    private void afterRow(long count) {
+        if (count % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+
+    record ExportColumn<E>(String name, Function<E, Object> value) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+}
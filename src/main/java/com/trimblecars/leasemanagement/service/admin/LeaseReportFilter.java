@@ -0,0 +1,10 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects the leases in a lease history report. Every criterion is optional.
+ */
+public record LeaseReportFilter(String customerId, String vehicleId, Boolean active,
+                                LocalDateTime startedFrom, LocalDateTime startedTo) {
+}
@@ -0,0 +1,33 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import java.util.Locale;
+
+public enum ReportFormat {
+
+    PDF("application/pdf", "pdf"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ReportFormat parse(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new IllegalArgumentException("Unsupported report format: " + format);
+        }
+    }
+}
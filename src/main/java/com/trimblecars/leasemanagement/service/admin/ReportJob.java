@@ -0,0 +1,54 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A report requested through the job API. Its state is updated by the worker generating it and read by
+ * pollers, so the mutable fields are volatile.
+ */
+@Getter
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String type;
+    private final ReportFormat format;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    // True when the result was already on disk and nothing had to be generated.
+    private volatile boolean cached;
+    private volatile LocalDateTime completedAt;
+    private volatile String error;
+    @JsonIgnore
+    private volatile Path file;
+
+    ReportJob(String type, ReportFormat format) {
+        this.type = type;
+        this.format = format;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void complete(Path file, boolean cached) {
+        this.file = file;
+        this.cached = cached;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.DONE;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+}
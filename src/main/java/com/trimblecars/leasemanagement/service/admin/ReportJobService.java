@@ -0,0 +1,234 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.exception.ResourceNotFoundException;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository.DataVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates reports off the request threads on a small bounded pool and keeps each result as a file.
+ * The file name is derived from the report type, format and filter together with the data version of
+ * {@code lease_history}, so as long as no lease changes, asking for the same report again is answered
+ * from disk without touching the database beyond reading the version. Identical reports requested while
+ * one is being generated share that job. Files unused for the TTL are deleted.
+ */
+@Service
+public class ReportJobService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    static final String LEASE_HISTORY = "lease-history";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final DataExportService exportService;
+    private final LeaseHistoryRepository leaseHistoryRepository;
+    private final Path cacheDir;
+    private final long ttlMillis;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Jobs still generating, by cache key.
+    private final ConcurrentHashMap<String, ReportJob> pending = new ConcurrentHashMap<>();
+
+    public ReportJobService(DataExportService exportService,
+                            LeaseHistoryRepository leaseHistoryRepository,
+                            @Value("${report.cache-dir:${java.io.tmpdir}/leasemanagement-reports}") String cacheDir,
+                            @Value("${report.threads:2}") int threads,
+                            @Value("${report.queue-capacity:16}") int queueCapacity,
+                            @Value("${report.cache.ttl-seconds:86400}") long ttlSeconds) {
+        this.exportService = exportService;
+        this.leaseHistoryRepository = leaseHistoryRepository;
+        this.cacheDir = Paths.get(cacheDir);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("report-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        try {
+            Files.createDirectories(this.cacheDir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create report cache directory " + cacheDir, ex);
+        }
+    }
+
+    /**
+     * Returns a job for the lease history report. It is already {@link ReportJob.Status#DONE} when the
+     * report for the current data is on disk; otherwise it is queued, or an identical queued job is returned.
+     *
+     * @throws ServiceBusyException when the queue is full
+     */
+    public ReportJob submit(LeaseReportFilter filter, ReportFormat format) {
+        // Read before generating: the file for a version can only hold that state of the data or a newer one.
+        String cacheKey = cacheKey(LEASE_HISTORY, format, filter, leaseHistoryRepository.findDataVersion());
+        Path file = cacheDir.resolve(cacheKey + "." + format.getExtension());
+        ReportJob job = new ReportJob(LEASE_HISTORY, format);
+        if (touch(file)) {
+            logger.info("Report {} served from cache.", cacheKey);
+            job.complete(file, true);
+            jobs.put(job.getId(), job);
+            return job;
+        }
+
+        ReportJob existing = pending.putIfAbsent(cacheKey, job);
+        if (existing != null) {
+            return existing;
+        }
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> generate(job, filter, cacheKey, file));
+        } catch (RejectedExecutionException ex) {
+            pending.remove(cacheKey, job);
+            jobs.remove(job.getId());
+            throw new ServiceBusyException("Too many reports are being generated, please retry shortly.");
+        }
+        return job;
+    }
+
+    public ReportJob getJob(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found");
+        }
+        return job;
+    }
+
+    /**
+     * Copies the file to {@code out} with {@link FileChannel#transferTo}, which lets the JDK skip the
+     * user-space buffer whenever the target channel allows it.
+     */
+    public void transferTo(Path file, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+        out.flush();
+    }
+
+    private void generate(ReportJob job, LeaseReportFilter filter, String cacheKey, Path file) {
+        job.markRunning();
+        long startNanos = System.nanoTime();
+        Path partial = null;
+        try {
+            // Written under a temporary name and moved into place, so a half-written report is never served.
+            partial = Files.createTempFile(cacheDir, cacheKey, PARTIAL_SUFFIX);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE)) {
+                exportService.writeLeaseReport(filter, job.getFormat(), out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(file, false);
+            logger.info("Report job {} finished in {} ms.", job.getId(), (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (Exception ex) {
+            logger.error("Report job {} failed.", job.getId(), ex);
+            job.fail(ex.getMessage());
+            deleteQuietly(partial);
+        } finally {
+            pending.remove(cacheKey, job);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${report.cache.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        LocalDateTime jobCutoff = LocalDateTime.now().minus(Duration.ofMillis(ttlMillis));
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(jobCutoff));
+
+        Set<Path> deleted = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    deleted.add(file);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not purge the report cache.", ex);
+        }
+        if (!deleted.isEmpty()) {
+            // A job whose file is gone can no longer be downloaded; asking again regenerates the report.
+            jobs.values().removeIf(job -> job.getFile() != null && deleted.contains(job.getFile()));
+            logger.info("Purged {} expired report files.", deleted.size());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    static String cacheKey(String type, ReportFormat format, LeaseReportFilter filter, DataVersion version) {
+        MessageDigest digest = sha256();
+        for (Object part : new Object[]{type, format, filter.customerId(), filter.vehicleId(), filter.active(),
+                filter.startedFrom(), filter.startedTo(), version.getLeases(), version.getLastModified()}) {
+            digest.update(Objects.toString(part, "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Refreshes the modification time of a cached file, so the purge keeps files that are still requested.
+    private static boolean touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Could not delete partial report {}.", file, ex);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.dto.StatementBatchReport;
+import com.trimblecars.leasemanagement.dto.StatementBatchReport.Status;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.service.PdfService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders one statement PDF per customer for a month into a single ZIP. Customers are walked in id order
+ * and cut into chunks. Each chunk is loaded with one query per table and rendered on a bounded pool into
+ * its own part file. The parts are merged at the end. A checkpoint records the last chunk of the completed
+ * prefix, so a run that stops part-way resumes after it instead of starting over.
+ */
+@Service
+public class StatementBatchService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBatchService.class);
+
+    static final String CHECKPOINT_FILE = "checkpoint.properties";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EndCustomerRepository customerRepository;
+    private final LeaseHistoryRepository leaseHistoryRepository;
+    private final PdfService pdfService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path outputDir;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final ThreadPoolExecutor renderPool;
+    private final ExecutorService launcher =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("statement-batch-"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile StatementBatchReport lastReport;
+
+    public StatementBatchService(EndCustomerRepository customerRepository,
+                                 LeaseHistoryRepository leaseHistoryRepository,
+                                 PdfService pdfService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${statement.output-dir:${java.io.tmpdir}/leasemanagement-statements}") String outputDir,
+                                 @Value("${statement.chunk-size:500}") int chunkSize,
+                                 @Value("${statement.threads:0}") int threads) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Statement chunk size must be positive: " + chunkSize);
+        }
+        this.customerRepository = customerRepository;
+        this.leaseHistoryRepository = leaseHistoryRepository;
+        this.pdfService = pdfService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.outputDir = Paths.get(outputDir);
+        this.chunkSize = chunkSize;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // Rendering is CPU-bound; two chunks per thread keep the pool busy while one is being checkpointed.
+        this.maxInFlight = poolSize * 2;
+        this.renderPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("statement-render-"));
+    }
+
+    /**
+     * Generates the statements for {@code month} on the calling thread and returns the final report.
+     *
+     * @throws ServiceBusyException when a batch is already running
+     */
+    public StatementBatchReport generate(YearMonth month) {
+        acquire();
+        try {
+            return run(month);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts generating the statements for {@code month} in the background; progress is available from
+     * {@link #getLastReport()}.
+     *
+     * @throws ServiceBusyException when a batch is already running
+     */
+    public void submit(YearMonth month) {
+        acquire();
+        try {
+            launcher.execute(() -> {
+                try {
+                    run(month);
+                } catch (RuntimeException ex) {
+                    // Already logged and recorded in the report.
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            running.set(false);
+            throw new ServiceBusyException("Statement batches are not accepted while shutting down.");
+        }
+    }
+
+    @Scheduled(cron = "${statement.cron:0 0 2 1 * *}")
+    public void generatePreviousMonth() {
+        try {
+            submit(YearMonth.now().minusMonths(1));
+        } catch (ServiceBusyException ex) {
+            logger.warn("Skipped the monthly statement batch: {}", ex.getMessage());
+        }
+    }
+
+    public StatementBatchReport getLastReport() {
+        return lastReport;
+    }
+
+    private void acquire() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ServiceBusyException("A statement batch is already running.");
+        }
+    }
+
+    private StatementBatchReport run(YearMonth month) {
+        Path dir = outputDir.resolve("statements-" + month);
+        Path zip = outputDir.resolve("statements-" + month + ".zip");
+        Path checkpointFile = dir.resolve(CHECKPOINT_FILE);
+        BatchRun batch = new BatchRun(month);
+        Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+        try {
+            Files.createDirectories(dir);
+            Checkpoint saved = loadCheckpoint(checkpointFile);
+            if (saved.complete()) {
+                if (Files.exists(zip)) {
+                    batch.resume(saved);
+                    logger.info("Statements for {} were already generated.", month);
+                    return publish(batch.report(Status.DONE, zip, null));
+                }
+                // The parts were deleted once the ZIP was merged, so a lost ZIP means starting over.
+                logger.warn("Statements for {} were marked complete but {} is missing; regenerating.", month, zip);
+                Files.delete(checkpointFile);
+                deleteParts(dir);
+                saved = Checkpoint.EMPTY;
+            }
+            batch.resume(saved);
+            if (batch.resumedFromChunk > 0) {
+                logger.info("Resuming statements for {} after chunk {}.", month, batch.resumedFromChunk);
+            }
+
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            int nextChunk = batch.checkpoint.chunks();
+            String after = batch.checkpoint.lastCustomerId();
+            while (true) {
+                List<String> customerIds = customerRepository.findIdsAfter(after, PageRequest.ofSize(chunkSize));
+                if (customerIds.isEmpty()) {
+                    break;
+                }
+                after = customerIds.get(customerIds.size() - 1);
+                int index = nextChunk++;
+                inFlight.add(renderPool.submit(() -> renderChunk(dir, index, customerIds, month, from, to)));
+                // Chunks finish in any order, but the checkpoint only ever advances over a completed prefix.
+                if (inFlight.size() >= maxInFlight) {
+                    batch.advance(inFlight.poll().get(), checkpointFile);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                batch.advance(inFlight.poll().get(), checkpointFile);
+            }
+
+            merge(dir, batch.checkpoint.chunks(), zip);
+            batch.checkpoint = batch.checkpoint.completed();
+            saveCheckpoint(checkpointFile, batch.checkpoint);
+            deleteParts(dir);
+            StatementBatchReport report = publish(batch.report(Status.DONE, zip, null));
+            logger.info("Generated {} statements for {} in {} ms ({} statements/s).", report.getStatements(), month,
+                    report.getElapsedMillis(), String.format("%.1f", report.getStatementsPerSecond()));
+            return report;
+        } catch (Exception ex) {
+            inFlight.forEach(future -> future.cancel(true));
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+            logger.error("Statement batch for {} failed after chunk {}.", month, batch.checkpoint.chunks(), cause);
+            publish(batch.report(Status.FAILED, null, cause.getMessage()));
+            throw cause instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new IllegalStateException("Statement batch for " + month + " failed", cause);
+        }
+    }
+
+    private ChunkResult renderChunk(Path dir, int index, List<String> customerIds, YearMonth month,
+                                    LocalDateTime from, LocalDateTime to) throws IOException {
+        Map<String, List<LeaseHistory>> leasesByCustomer = new HashMap<>();
+        List<EndCustomer> customers = transactionTemplate.execute(status -> {
+            List<EndCustomer> loaded = new ArrayList<>(customerRepository.findAllById(customerIds));
+            for (LeaseHistory lease : leaseHistoryRepository.findForStatements(customerIds, from, to)) {
+                leasesByCustomer.computeIfAbsent(lease.getCustomer().getId(), id -> new ArrayList<>()).add(lease);
+            }
+            return loaded;
+        });
+        customers.sort(Comparator.comparing(EndCustomer::getId));
+
+        Path partial = Files.createTempFile(dir, "chunk-", PARTIAL_SUFFIX);
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE))) {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream(16 * 1024);
+            for (EndCustomer customer : customers) {
+                pdf.reset();
+                pdfService.writeStatementPdf(customer, month,
+                        leasesByCustomer.getOrDefault(customer.getId(), List.of()), pdf);
+                putStored(zip, customer.getId() + ".pdf", pdf);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            throw ex;
+        }
+        Files.move(partial, partPath(dir, index), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new ChunkResult(customerIds.get(customerIds.size() - 1), customers.size());
+    }
+
+    // PDF content is already compressed, so entries are stored as-is rather than deflated a second time.
+    private static void putStored(ZipOutputStream zip, String name, ByteArrayOutputStream content) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = content.toByteArray();
+        crc.update(bytes);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(bytes.length);
+        entry.setCompressedSize(bytes.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    private static void merge(Path dir, int chunks, Path zip) throws IOException {
+        Path partial = Files.createTempFile(dir, "statements-", PARTIAL_SUFFIX);
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE))) {
+            for (int index = 0; index < chunks; index++) {
+                try (ZipInputStream in = new ZipInputStream(
+                        new BufferedInputStream(Files.newInputStream(partPath(dir, index)), BUFFER_SIZE))) {
+                    for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                        // Stored entries carry their size and CRC, so they are copied without recompressing.
+                        out.putNextEntry(new ZipEntry(entry));
+                        in.transferTo(out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+        Files.move(partial, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void deleteParts(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.{zip,part}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Path partPath(Path dir, int index) {
+        return dir.resolve(String.format("chunk-%06d.zip", index));
+    }
+
+    static Checkpoint loadCheckpoint(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Checkpoint.EMPTY;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new Checkpoint(Integer.parseInt(properties.getProperty("chunks")),
+                properties.getProperty("lastCustomerId"),
+                Long.parseLong(properties.getProperty("statements")),
+                Boolean.parseBoolean(properties.getProperty("complete")));
+    }
+
+    private static void saveCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("chunks", Integer.toString(checkpoint.chunks()));
+        if (checkpoint.lastCustomerId() != null) {
+            properties.setProperty("lastCustomerId", checkpoint.lastCustomerId());
+        }
+        properties.setProperty("statements", Long.toString(checkpoint.statements()));
+        properties.setProperty("complete", Boolean.toString(checkpoint.complete()));
+        Path partial = file.resolveSibling(file.getFileName() + PARTIAL_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private StatementBatchReport publish(StatementBatchReport report) {
+        lastReport = report;
+        return report;
+    }
+
+    @Override
+    public void destroy() {
+        launcher.shutdownNow();
+        renderPool.shutdownNow();
+    }
+
+    record Checkpoint(int chunks, String lastCustomerId, long statements, boolean complete) {
+
+        static final Checkpoint EMPTY = new Checkpoint(0, null, 0, false);
+
+        Checkpoint next(ChunkResult chunk) {
+            return new Checkpoint(chunks + 1, chunk.lastCustomerId(), statements + chunk.statements(), false);
+        }
+
+        Checkpoint completed() {
+            return new Checkpoint(chunks, lastCustomerId, statements, true);
+        }
+    }
+
+    private record ChunkResult(String lastCustomerId, int statements) {
+    }
+
+    // State of one call to run, including what an earlier interrupted run had already finished.
+    private final class BatchRun {
+
+        private final YearMonth month;
+        private final long startNanos = System.nanoTime();
+        private Checkpoint checkpoint = Checkpoint.EMPTY;
+        private int resumedFromChunk;
+        private long statementsAtStart;
+
+        private BatchRun(YearMonth month) {
+            this.month = month;
+        }
+
+        private void resume(Checkpoint saved) {
+            checkpoint = saved;
+            resumedFromChunk = saved.chunks();
+            statementsAtStart = saved.statements();
+        }
+
+        private void advance(ChunkResult chunk, Path checkpointFile) throws IOException {
+            checkpoint = checkpoint.next(chunk);
+            saveCheckpoint(checkpointFile, checkpoint);
+            publish(report(Status.RUNNING, null, null));
+            if (checkpoint.chunks() % 10 == 0) {
+                logger.info("Statements for {}: {} chunks, {} statements.", month, checkpoint.chunks(),
+                        checkpoint.statements());
+            }
+        }
+
+        private StatementBatchReport report(Status status, Path file, String error) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long rendered = checkpoint.statements() - statementsAtStart;
+            double perSecond = elapsedMillis == 0 ? 0 : rendered * 1000.0 / elapsedMillis;
+            return new StatementBatchReport(month.toString(), status, checkpoint.chunks(), checkpoint.statements(),
+                    resumedFromChunk, elapsedMillis, perSecond, file == null ? null : file.toString(), error);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository.LeaseInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Per-vehicle calendar of current and future leases, mirroring {@code lease_history}. Accepted intervals
+ * never overlap, so each vehicle's calendar is a {@link TreeMap} keyed by start and an overlap test is a
+ * single {@code lowerEntry} lookup. Intervals are half-open: a lease ending at 10:00 does not block one
+ * starting at 10:00.
+ * <p>
+ * Callers must hold the vehicle's row lock while reserving, so the check-then-insert is atomic across
+ * transactions; a tentative reservation is withdrawn again if its transaction rolls back.
+ */
+@Component
+public class BookingCalendar {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingCalendar.class);
+
+    static final LocalDateTime OPEN_END = LocalDateTime.MAX;
+
+    private final LeaseHistoryRepository leaseHistoryRepository;
+    private final ConcurrentHashMap<String, VehicleCalendar> calendars = new ConcurrentHashMap<>();
+    // Until the calendar is warmed every check must fall through to the database.
+    private volatile boolean warmed;
+
+    public BookingCalendar(LeaseHistoryRepository leaseHistoryRepository) {
+        this.leaseHistoryRepository = leaseHistoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        long[] count = new long[1];
+        try (Stream<LeaseInterval> intervals = leaseHistoryRepository.streamCurrentAndFuture(LocalDateTime.now())) {
+            intervals.forEach(interval -> {
+                calendarFor(interval.getVehicleId())
+                        .put(new Booking(interval.getId(), interval.getLeaseStartDate(), endOf(interval)));
+                count[0]++;
+            });
+        }
+        warmed = true;
+        logger.info("Booking calendar warmed with {} current and future leases.", count[0]);
+    }
+
+    public boolean isFree(String vehicleId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start must be before end.");
+        }
+        if (!warmed) {
+            return !leaseHistoryRepository.existsOverlapping(vehicleId, from, to);
+        }
+        VehicleCalendar calendar = calendars.get(vehicleId);
+        return calendar == null || !calendar.overlaps(from, to);
+    }
+
+    /**
+     * Returns an in-memory test for whether a vehicle is free over {@code [from, to)}, for sweeping the whole
+     * fleet without a query per vehicle.
+     */
+    public Predicate<String> freeBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start must be before end.");
+        }
+        if (!warmed) {
+            throw new ServiceBusyException("Booking calendar is warming up, please retry shortly.");
+        }
+        return vehicleId -> {
+            VehicleCalendar calendar = calendars.get(vehicleId);
+            return calendar == null || !calendar.overlaps(from, to);
+        };
+    }
+
+    /**
+     * Returns the vehicles booked at some point in {@code [from, to)}. Only vehicles that have bookings are
+     * visited, so a fleet-wide search can subtract the result rather than test every vehicle.
+     */
+    public Set<String> bookedBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Start must be before end.");
+        }
+        if (!warmed) {
+            throw new ServiceBusyException("Booking calendar is warming up, please retry shortly.");
+        }
+        Set<String> booked = new HashSet<>();
+        calendars.forEach((vehicleId, calendar) -> {
+            if (calendar.overlaps(from, to)) {
+                booked.add(vehicleId);
+            }
+        });
+        return booked;
+    }
+
+    /**
+     * Reserves {@code [from, to)} for the lease if the vehicle is free, within the caller's transaction.
+     * Returns false on conflict.
+     */
+    public boolean tryReserve(String vehicleId, String leaseId, LocalDateTime from, LocalDateTime to) {
+        if (!isFree(vehicleId, from, to)) {
+            return false;
+        }
+        Booking booking = new Booking(leaseId, from, to);
+        VehicleCalendar calendar = calendarFor(vehicleId);
+        if (!calendar.putIfFree(booking)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        calendar.remove(booking);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Records the actual end of a lease once the caller's transaction commits. A booking cancelled before
+     * its start disappears from the calendar entirely.
+     */
+    public void closeAfterCommit(String vehicleId, String leaseId, LocalDateTime start, LocalDateTime end) {
+        Runnable close = () -> {
+            VehicleCalendar calendar = calendars.get(vehicleId);
+            if (calendar != null) {
+                calendar.close(leaseId, start, end);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            close.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                close.run();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${lease.booking.calendar-prune-interval-ms:3600000}")
+    public void pruneEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        calendars.values().forEach(calendar -> calendar.pruneEndedBefore(now));
+    }
+
+    private VehicleCalendar calendarFor(String vehicleId) {
+        return calendars.computeIfAbsent(vehicleId, id -> new VehicleCalendar());
+    }
+
+    private static LocalDateTime endOf(LeaseInterval interval) {
+        if (interval.getLeaseEndDate() != null) {
+            return interval.getLeaseEndDate();
+        }
+        return interval.getScheduledEndDate() != null ? interval.getScheduledEndDate() : OPEN_END;
+    }
+
+    private record Booking(String leaseId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private static final class VehicleCalendar {
+
+        private final TreeMap<LocalDateTime, Booking> bookings = new TreeMap<>();
+
+        synchronized boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            // Intervals are disjoint, so ends are ordered like starts: only the last one starting before
+            // "to" can reach past "from".
+            Map.Entry<LocalDateTime, Booking> candidate = bookings.lowerEntry(to);
+            return candidate != null && candidate.getValue().end().isAfter(from);
+        }
+
+        synchronized boolean putIfFree(Booking booking) {
+            if (overlaps(booking.start(), booking.end())) {
+                return false;
+            }
+            bookings.put(booking.start(), booking);
+            return true;
+        }
+
+        synchronized void put(Booking booking) {
+            bookings.put(booking.start(), booking);
+        }
+
+        synchronized void remove(Booking booking) {
+            bookings.remove(booking.start(), booking);
+        }
+
+        synchronized void pruneEndedBefore(LocalDateTime cutoff) {
+            Iterator<Booking> iterator = bookings.values().iterator();
+            while (iterator.hasNext() && !iterator.next().end().isAfter(cutoff)) {
+                iterator.remove();
+            }
+        }
+
+        synchronized void close(String leaseId, LocalDateTime start, LocalDateTime end) {
+            Booking current = bookings.get(start);
+            if (current == null || !current.leaseId().equals(leaseId)) {
+                return;
+            }
+            if (end.isAfter(start)) {
+                bookings.put(start, new Booking(leaseId, start, end));
+            } else {
+                bookings.remove(start);
+            }
+        }
+    }
+}
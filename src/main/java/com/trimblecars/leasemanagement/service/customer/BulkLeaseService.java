@@ -0,0 +1,229 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.dto.BulkLeaseReport;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest.Action;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest.Operation;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository.LeaseInterval;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.owner.VehicleReleasedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Starts and ends many leases in one transaction. Every customer, vehicle and lease the batch touches is
+ * loaded up front with one query per table, customers and vehicles under a row lock taken in id order.
+ * Operations are validated in order against that in-memory state, so hold and booking checks cannot be
+ * overtaken by a hold placed under the same lock, and the resulting inserts and versioned updates are
+ * flushed together at commit, where Hibernate groups them into JDBC batches. A concurrent single-lease
+ * change shows up as a version conflict at commit, and the whole batch is re-validated against fresh state.
+ */
+@Service
+public class BulkLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLeaseService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final EndCustomerRepository customerRepository;
+    private final LeaseHistoryRepository leaseHistoryRepository;
+    private final VehicleRentalInfoRepository vehicleRepository;
+    private final BookingCalendar bookingCalendar;
+    private final LeaseHoldService leaseHoldService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxOperations;
+
+    public BulkLeaseService(EndCustomerRepository customerRepository,
+                            LeaseHistoryRepository leaseHistoryRepository,
+                            VehicleRentalInfoRepository vehicleRepository,
+                            BookingCalendar bookingCalendar,
+                            LeaseHoldService leaseHoldService,
+                            ApplicationEventPublisher eventPublisher,
+                            OptimisticRetryExecutor retryExecutor,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${lease.batch.max-operations:200}") int maxOperations) {
+        this.customerRepository = customerRepository;
+        this.leaseHistoryRepository = leaseHistoryRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.bookingCalendar = bookingCalendar;
+        this.leaseHoldService = leaseHoldService;
+        this.eventPublisher = eventPublisher;
+        this.retryExecutor = retryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Applies the operations in order and reports each one's outcome. A failed operation does not affect
+     * the others. A vehicle returned by an END is only released in the booking calendar at commit, so it
+     * cannot be leased again within the same batch.
+     */
+    public BulkLeaseReport process(List<Operation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("At least one lease operation is required.");
+        }
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxOperations + " operations.");
+        }
+        if (operations.contains(null)) {
+            throw new IllegalArgumentException("Lease operations must not be null.");
+        }
+        BulkLeaseReport report = retryExecutor.execute("Bulk lease",
+                () -> transactionTemplate.execute(status -> apply(operations)));
+        logger.info("Bulk lease batch of {} operations: {} succeeded, {} failed.",
+                operations.size(), report.getSucceeded(), report.getFailed());
+        return report;
+    }
+
+    private BulkLeaseReport apply(List<Operation> operations) {
+        Set<String> leaseIds = new HashSet<>();
+        Set<String> customerIds = new HashSet<>();
+        Set<String> vehicleIds = new HashSet<>();
+        for (Operation operation : operations) {
+            if (operation.getAction() == Action.END && operation.getLeaseId() != null) {
+                leaseIds.add(operation.getLeaseId());
+            } else if (operation.getAction() == Action.START) {
+                addIfPresent(customerIds, operation.getCustomerId());
+                addIfPresent(vehicleIds, operation.getVehicleId());
+            }
+        }
+        // Resolve the ends' customers and vehicles first, so loading the leases finds them already managed.
+        if (!leaseIds.isEmpty()) {
+            for (LeaseInterval interval : leaseHistoryRepository.findIntervalsByIdIn(leaseIds)) {
+                customerIds.add(interval.getCustomerId());
+                vehicleIds.add(interval.getVehicleId());
+            }
+        }
+        // Row locks, customers before vehicles as in a single start, so holds and bookings placed by other
+        // transactions cannot change between the checks below and the commit.
+        Map<String, EndCustomer> customers = customerIds.isEmpty() ? new HashMap<>()
+                : byId(customerRepository.findAllByIdForUpdate(customerIds), EndCustomer::getId);
+        Map<String, VehicleRentalInfo> vehicles = vehicleIds.isEmpty() ? new HashMap<>()
+                : byId(vehicleRepository.findAllByIdForUpdate(vehicleIds), VehicleRentalInfo::getId);
+        Map<String, LeaseHistory> leases = byId(leaseHistoryRepository.findAllById(leaseIds), LeaseHistory::getId);
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkLeaseReport report = new BulkLeaseReport();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            try {
+                LeaseHistory lease = switch (requireAction(operation)) {
+                    case START -> start(operation, customers, vehicles, now);
+                    case END -> end(operation, leases, now);
+                };
+                report.itemSucceeded(i, operation.getAction(), lease.getId());
+            } catch (IllegalArgumentException | LeaseConflictException ex) {
+                report.itemFailed(i, operation.getAction(), ex.getMessage());
+            }
+        }
+        return report;
+    }
+
+    private LeaseHistory start(Operation operation, Map<String, EndCustomer> customers,
+                               Map<String, VehicleRentalInfo> vehicles, LocalDateTime now) {
+        LocalDateTime endDate = operation.getEndDate();
+        if (endDate != null && !endDate.isAfter(now)) {
+            throw new IllegalArgumentException("Lease end date must be in the future.");
+        }
+        EndCustomer customer = customers.get(operation.getCustomerId());
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        if (customer.getActiveLeases() >= EndCustomerService.MAX_ACTIVE_LEASES) {
+            throw new IllegalArgumentException("Customer can have a maximum of 2 active leases.");
+        }
+        VehicleRentalInfo vehicle = vehicles.get(operation.getVehicleId());
+        if (vehicle == null) {
+            throw new IllegalArgumentException("Vehicle not found");
+        }
+        if (vehicle.getCurrentStatus() != VehicleCurrentStatus.IDEAL) {
+            throw new LeaseConflictException("Vehicle is not available for lease.");
+        }
+        if (leaseHoldService.isHeldByOther(vehicle.getId(), customer.getId())) {
+            throw new LeaseConflictException("Vehicle is held by another customer.");
+        }
+
+        LeaseHistory lease = new LeaseHistory();
+        if (!bookingCalendar.tryReserve(vehicle.getId(), lease.getId(), now,
+                endDate == null ? BookingCalendar.OPEN_END : endDate)) {
+            throw new LeaseConflictException("Vehicle is booked during the requested period.");
+        }
+        customer.setActiveLeases(customer.getActiveLeases() + 1);
+        vehicle.setCurrentStatus(VehicleCurrentStatus.ON_LEASE);
+        lease.setCustomer(customer);
+        lease.setVehicle(vehicle);
+        lease.setLeaseStartDate(now);
+        lease.setScheduledEndDate(endDate);
+        lease.setActivated(true);
+        // persist rather than save: the id is pre-assigned, and save would issue a select to tell new from detached.
+        entityManager.persist(lease);
+        return lease;
+    }
+
+    private LeaseHistory end(Operation operation, Map<String, LeaseHistory> leases, LocalDateTime now) {
+        LeaseHistory lease = leases.get(operation.getLeaseId());
+        // Callers acting for one customer may only end that customer's leases.
+        if (lease == null || (operation.getCustomerId() != null
+                && !operation.getCustomerId().equals(lease.getCustomer().getId()))) {
+            throw new IllegalArgumentException("Lease not found");
+        }
+        if (lease.getLeaseEndDate() != null) {
+            throw new IllegalArgumentException("Lease has already ended.");
+        }
+
+        lease.setLeaseEndDate(now);
+        VehicleRentalInfo vehicle = lease.getVehicle();
+        if (lease.isActivated()) {
+            EndCustomer customer = lease.getCustomer();
+            customer.setActiveLeases(Math.max(0, customer.getActiveLeases() - 1));
+            if (vehicle.getCurrentStatus() == VehicleCurrentStatus.ON_LEASE) {
+                vehicle.setCurrentStatus(VehicleCurrentStatus.IDEAL);
+                eventPublisher.publishEvent(new VehicleReleasedEvent(vehicle.getId()));
+            }
+        }
+        bookingCalendar.closeAfterCommit(vehicle.getId(), lease.getId(), lease.getLeaseStartDate(), now);
+        return lease;
+    }
+
+    private static Action requireAction(Operation operation) {
+        if (operation.getAction() == null) {
+            throw new IllegalArgumentException("Operation action is required.");
+        }
+        return operation.getAction();
+    }
+
+    private static void addIfPresent(Set<String> ids, String id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static <T> Map<String, T> byId(List<T> entities, Function<T, String> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity(), (first, second) -> first, HashMap::new));
+    }
+}
@@ -1,5 +1,9 @@
 package com.trimblecars.leasemanagement.service.customer;
 
+import com.trimblecars.leasemanagement.dto.LeaseHold;
+import com.trimblecars.leasemanagement.dto.VehicleSearchRequest;
+import com.trimblecars.leasemanagement.dto.VehicleSearchResult;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
 import com.trimblecars.leasemanagement.exception.ResourceNotFoundException;
 import com.trimblecars.leasemanagement.model.customer.EndCustomer;
 import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
@@ -7,27 +11,78 @@ import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
 import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
 import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
 import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository.LeaseInterval;
 import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.owner.VehicleAvailabilityIndex;
+import com.trimblecars.leasemanagement.service.owner.VehicleReleasedEvent;
+import com.trimblecars.leasemanagement.service.owner.VehicleSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 @Service
 public class EndCustomerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EndCustomerService.class);
+
+    static final int MAX_ACTIVE_LEASES = 2;
+    // ON_LEASE vehicles qualify too: the booking calendar knows when they come back.
+    private static final Set<VehicleCurrentStatus> LEASABLE_STATUSES =
+            EnumSet.of(VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE);
+    private static final int CLAIM_BATCH_SIZE = 16;
+    private static final int CLAIM_ROUNDS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final EndCustomerRepository customerRepository;
     private final LeaseHistoryRepository leaseHistoryRepository;
     private final VehicleRentalInfoRepository vehicleRepository;
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final VehicleSearchIndex searchIndex;
+    private final BookingCalendar bookingCalendar;
+    private final LeaseHoldService leaseHoldService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    // Vehicles some caller in this process is currently trying to claim; others skip them, like SKIP LOCKED.
+    private final Set<String> claimedVehicles = ConcurrentHashMap.newKeySet();
 
     public EndCustomerService(EndCustomerRepository customerRepository,
                               LeaseHistoryRepository leaseHistoryRepository,
-                              VehicleRentalInfoRepository vehicleRepository) {
+                              VehicleRentalInfoRepository vehicleRepository,
+                              VehicleAvailabilityIndex availabilityIndex,
+                              VehicleSearchIndex searchIndex,
+                              BookingCalendar bookingCalendar,
+                              LeaseHoldService leaseHoldService,
+                              ApplicationEventPublisher eventPublisher,
+                              OptimisticRetryExecutor retryExecutor,
+                              PlatformTransactionManager transactionManager) {
         this.customerRepository = customerRepository;
         this.leaseHistoryRepository = leaseHistoryRepository;
         this.vehicleRepository = vehicleRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.searchIndex = searchIndex;
+        this.bookingCalendar = bookingCalendar;
+        this.leaseHoldService = leaseHoldService;
+        this.eventPublisher = eventPublisher;
+        this.retryExecutor = retryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public EndCustomer registerCustomer(EndCustomer customer) {
@@ -35,56 +90,232 @@ public class EndCustomerService {
     }
 
     public List<VehicleRentalInfo> getAvailableVehicles() {
-        return vehicleRepository.findByCurrentStatus(VehicleCurrentStatus.IDEAL);
+        List<VehicleRentalInfo> vehicles = availabilityIndex.findByStatus(VehicleCurrentStatus.IDEAL);
+        vehicles.removeIf(vehicle -> leaseHoldService.isHeld(vehicle.getId()));
+        return vehicles;
     }
 
-    @Transactional
-    public LeaseHistory startLease(String customerId, String vehicleId) {
-        EndCustomer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
+    public VehicleSearchResult searchVehicles(VehicleSearchRequest request) {
+        return searchIndex.search(request);
+    }
 
-        if (customer.getActiveLeases() >= 2) {
-            throw new IllegalArgumentException("Customer can have a maximum of 2 active leases.");
+    public LeaseHistory startLease(String customerId, String vehicleId, LocalDateTime endDate) {
+        // Fails fast without touching the database; doStartLease repeats the check under the row lock.
+        if (leaseHoldService.isHeldByOther(vehicleId, customerId)) {
+            throw new LeaseConflictException("Vehicle is held by another customer.");
         }
+        return transactionTemplate.execute(status -> doStartLease(customerId, vehicleId, endDate));
+    }
+
+    /**
+     * Leases the cheapest available vehicle matching the criteria. Concurrent callers skip vehicles another
+     * caller is claiming instead of queueing on the same row, so each gets a different vehicle; a claim that
+     * loses to a stale index entry just moves on to the next candidate.
+     */
+    public LeaseHistory startLeaseForAny(String customerId, String type, Integer minSeatingCapacity,
+                                         Double maxDailyPrice, LocalDateTime endDate) {
+        VehicleSearchRequest criteria = new VehicleSearchRequest();
+        criteria.setType(type);
+        criteria.setMaxPrice(maxDailyPrice);
+        criteria.setCurrentStatus(VehicleCurrentStatus.IDEAL);
+        Predicate<String> free = bookingCalendar.freeBetween(LocalDateTime.now(),
+                endDate == null ? BookingCalendar.OPEN_END : endDate);
+        Predicate<VehicleRentalInfo> claimable = vehicle ->
+                (minSeatingCapacity == null || vehicle.getSeatingCapacity() >= minSeatingCapacity)
+                        && !claimedVehicles.contains(vehicle.getId())
+                        && !leaseHoldService.isHeld(vehicle.getId())
+                        && free.test(vehicle.getId());
+
+        for (int round = 0; round < CLAIM_ROUNDS; round++) {
+            List<VehicleRentalInfo> candidates = searchIndex.findCheapestMatching(criteria, claimable, CLAIM_BATCH_SIZE);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (VehicleRentalInfo candidate : candidates) {
+                if (!claimedVehicles.add(candidate.getId())) {
+                    continue;
+                }
+                try {
+                    return startLease(customerId, candidate.getId(), endDate);
+                } catch (LeaseConflictException lost) {
+                    logger.debug("Claim on vehicle {} lost: {}", candidate.getId(), lost.getMessage());
+                } finally {
+                    claimedVehicles.remove(candidate.getId());
+                }
+            }
+        }
+        throw new LeaseConflictException("No vehicle matching the criteria is available.");
+    }
+
+    public LeaseHold placeHold(String customerId, String vehicleId) {
+        return leaseHoldService.placeHold(customerId, vehicleId);
+    }
+
+    // The hold stays in place while the lease starts, so nobody can slip in between; it is released after.
+    public LeaseHistory confirmHold(String holdId, String customerId, LocalDateTime endDate) {
+        LeaseHold hold = leaseHoldService.requireHold(holdId, customerId);
+        LeaseHistory lease = startLease(customerId, hold.getVehicleId(), endDate);
+        leaseHoldService.release(holdId, customerId);
+        return lease;
+    }
+
+    public boolean releaseHold(String holdId, String customerId) {
+        return leaseHoldService.release(holdId, customerId);
+    }
+
+    public LeaseHistory bookVehicle(String customerId, String vehicleId, LocalDateTime startDate, LocalDateTime endDate) {
+        return transactionTemplate.execute(status -> doBookVehicle(customerId, vehicleId, startDate, endDate));
+    }
+
+    public VehicleSearchResult findVehiclesFreeBetween(LocalDateTime from, LocalDateTime to,
+                                                       boolean descending, int page, int size) {
+        return searchIndex.findByPrice(LEASABLE_STATUSES, bookingCalendar.bookedBetween(from, to), descending, page, size);
+    }
 
-        VehicleRentalInfo vehicle = vehicleRepository.findById(vehicleId)
-                .orElseThrow(() -> new IllegalArgumentException("Vehicle not found"));
+    public boolean isVehicleFree(String vehicleId, LocalDateTime from, LocalDateTime to) {
+        return bookingCalendar.isFree(vehicleId, from, to);
+    }
+
+    public LeaseHistory endLease(String leaseId) {
+        return transactionTemplate.execute(status -> doEndLease(leaseId));
+    }
 
-        if (vehicle.getCurrentStatus() != VehicleCurrentStatus.IDEAL) {
-            throw new IllegalArgumentException("Vehicle is not available for lease.");
+    // Each transition is a guarded UPDATE whose row count decides the outcome, so there is no
+    // read-modify-write window. Rows are always locked customer first, then vehicle.
+    private LeaseHistory doStartLease(String customerId, String vehicleId, LocalDateTime endDate) {
+        LocalDateTime now = LocalDateTime.now();
+        if (endDate != null && !endDate.isAfter(now)) {
+            throw new IllegalArgumentException("Lease end date must be in the future.");
         }
 
-        vehicle.setCurrentStatus(VehicleCurrentStatus.ON_LEASE);
-        vehicleRepository.save(vehicle);
+        if (customerRepository.incrementActiveLeases(customerId, MAX_ACTIVE_LEASES) == 0) {
+            throw new IllegalArgumentException(customerRepository.existsById(customerId)
+                    ? "Customer can have a maximum of 2 active leases."
+                    : "Customer not found");
+        }
 
-        customer.setActiveLeases(customer.getActiveLeases() + 1);
-        customerRepository.save(customer);
+        if (vehicleRepository.transitionStatus(vehicleId, VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE) == 0) {
+            if (!vehicleRepository.existsById(vehicleId)) {
+                throw new IllegalArgumentException("Vehicle not found");
+            }
+            throw new LeaseConflictException("Vehicle is not available for lease.");
+        }
+        // placeHold takes the same row lock, so any hold that could beat this lease is visible by now.
+        if (leaseHoldService.isHeldByOther(vehicleId, customerId)) {
+            throw new LeaseConflictException("Vehicle is held by another customer.");
+        }
 
         LeaseHistory leaseHistory = new LeaseHistory();
+        leaseHistory.setLeaseStartDate(now);
+        leaseHistory.setScheduledEndDate(endDate);
+        leaseHistory.setActivated(true);
+        // The status update above holds the vehicle's row lock, which makes the calendar check atomic.
+        if (!bookingCalendar.tryReserve(vehicleId, leaseHistory.getId(), now, endDate == null ? BookingCalendar.OPEN_END : endDate)) {
+            throw new LeaseConflictException("Vehicle is booked during the requested period.");
+        }
+
+        // Loaded after the updates so the returned lease reflects the new state.
+        EndCustomer customer = customerRepository.findById(customerId).orElseThrow();
+        VehicleRentalInfo vehicle = vehicleRepository.findById(vehicleId).orElseThrow();
+        // Bulk updates skip entity listeners, so the availability index is told explicitly.
+        availabilityIndex.refreshAfterCommit(vehicle);
+
         leaseHistory.setCustomer(customer);
         leaseHistory.setVehicle(vehicle);
-        leaseHistory.setLeaseStartDate(LocalDateTime.now());
+        entityManager.persist(leaseHistory);
+        return leaseHistory;
+    }
+
+    private LeaseHistory doBookVehicle(String customerId, String vehicleId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (!startDate.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Booking start date must be in the future.");
+        }
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException("Booking end date must be after its start date.");
+        }
+
+        VehicleRentalInfo vehicle = entityManager.find(VehicleRentalInfo.class, vehicleId, LockModeType.PESSIMISTIC_WRITE);
+        if (vehicle == null) {
+            throw new IllegalArgumentException("Vehicle not found");
+        }
+        EndCustomer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
 
-        return leaseHistoryRepository.save(leaseHistory);
+        LeaseHistory booking = new LeaseHistory();
+        booking.setCustomer(customer);
+        booking.setVehicle(vehicle);
+        booking.setLeaseStartDate(startDate);
+        booking.setScheduledEndDate(endDate);
+        if (!bookingCalendar.tryReserve(vehicleId, booking.getId(), startDate, endDate)) {
+            throw new LeaseConflictException("Vehicle is already booked during the requested period.");
+        }
+        entityManager.persist(booking);
+        return booking;
     }
 
-    @Transactional
-    public LeaseHistory endLease(String leaseId) {
-        LeaseHistory lease = leaseHistoryRepository.findById(leaseId)
-                .orElseThrow(() -> new IllegalArgumentException("Lease not found"));
+    // Hands over vehicles for bookings whose start has passed. A booking whose customer is at the lease
+    // limit, or whose vehicle has not been returned yet, stays pending and is retried on the next run, until
+    // its planned end passes; it is then closed at that end without ever being activated.
+    @Scheduled(fixedDelayString = "${lease.booking.activation-interval-ms:60000}")
+    public void activateDueBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        for (LeaseInterval lapsed : leaseHistoryRepository.findLapsedBookings(now)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (leaseHistoryRepository.closeLapsedBooking(lapsed.getId(), now) == 1) {
+                    bookingCalendar.closeAfterCommit(lapsed.getVehicleId(), lapsed.getId(),
+                            lapsed.getLeaseStartDate(), lapsed.getScheduledEndDate());
+                    logger.info("Booking {} lapsed before it could be activated and was closed.", lapsed.getId());
+                }
+            });
+        }
+        for (LeaseInterval booking : leaseHistoryRepository.findDueBookings(now)) {
+            Boolean activated = transactionTemplate.execute(status -> {
+                if (leaseHistoryRepository.markActivated(booking.getId(), now) == 0
+                        || customerRepository.incrementActiveLeases(booking.getCustomerId(), MAX_ACTIVE_LEASES) == 0
+                        || vehicleRepository.transitionStatus(booking.getVehicleId(),
+                        VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                vehicleRepository.findById(booking.getVehicleId()).ifPresent(availabilityIndex::refreshAfterCommit);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(activated)) {
+                logger.warn("Booking {} could not be activated yet.", booking.getId());
+            }
+        }
+    }
 
-        lease.setLeaseEndDate(LocalDateTime.now());
-        lease.getVehicle().setCurrentStatus(VehicleCurrentStatus.IDEAL);
-        lease.getCustomer().setActiveLeases(lease.getCustomer().getActiveLeases() - 1);
+    private LeaseHistory doEndLease(String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseHistoryRepository.closeLease(leaseId, now) == 0) {
+            throw new IllegalArgumentException(leaseHistoryRepository.existsById(leaseId)
+                    ? "Lease has already ended."
+                    : "Lease not found");
+        }
 
-        vehicleRepository.save(lease.getVehicle());
-        customerRepository.save(lease.getCustomer());
+        // Both updates only apply to activated leases; ending a pending booking simply cancels it.
+        customerRepository.decrementActiveLeasesForLease(leaseId);
+        // Only a vehicle still marked ON_LEASE goes back to IDEAL; an admin may have moved it since.
+        boolean returned = vehicleRepository.transitionStatusForLease(leaseId,
+                VehicleCurrentStatus.ON_LEASE, VehicleCurrentStatus.IDEAL) == 1;
 
-        return leaseHistoryRepository.save(lease);
+        LeaseHistory lease = leaseHistoryRepository.findById(leaseId).orElseThrow();
+        availabilityIndex.refreshAfterCommit(lease.getVehicle());
+        if (returned) {
+            eventPublisher.publishEvent(new VehicleReleasedEvent(lease.getVehicle().getId()));
+        }
+        bookingCalendar.closeAfterCommit(lease.getVehicle().getId(), leaseId, lease.getLeaseStartDate(), now);
+        return lease;
     }
 
-    @Transactional
     public EndCustomer updateCustomer(String customerId, EndCustomer updatedCustomer) {
+        // Lease transitions bump the customer's version, so a concurrent one is retried rather than lost.
+        return retryExecutor.execute("Customer update",
+                () -> transactionTemplate.execute(status -> doUpdateCustomer(customerId, updatedCustomer)));
+    }
+
+    private EndCustomer doUpdateCustomer(String customerId, EndCustomer updatedCustomer) {
         Optional<EndCustomer> existingCustomerOpt = customerRepository.findById(customerId);
         if (existingCustomerOpt.isEmpty()) {
             throw new ResourceNotFoundException("Customer not found with ID: " + customerId);
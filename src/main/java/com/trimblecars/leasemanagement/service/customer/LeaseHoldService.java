@@ -0,0 +1,219 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.cache.HashedTimingWheel;
+import com.trimblecars.leasemanagement.dto.LeaseHold;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.service.owner.VehicleAvailabilityIndex;
+import com.trimblecars.leasemanagement.service.owner.VehicleReleasedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived, in-memory holds that reserve a vehicle for one customer between browsing and
+ * {@code /lease/start}. Holds are never stored in the database; the vehicle only moves to ON_LEASE when the
+ * hold is confirmed. A hold is placed while holding the vehicle's row lock, the same lock a lease start takes
+ * before it checks for holds, so a hold and a lease on the same vehicle can never both succeed. Expiry is
+ * driven by a {@link HashedTimingWheel}, so any number of holds cost one O(1) bucket visit per tick.
+ */
+@Service
+public class LeaseHoldService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final BookingCalendar bookingCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+    private final int maxHoldsPerCustomer;
+    private final HashedTimingWheel<ActiveHold> wheel;
+    private final ConcurrentHashMap<String, ActiveHold> holdsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ActiveHold> holdsByVehicle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> holdsPerCustomer = new ConcurrentHashMap<>();
+
+    public LeaseHoldService(VehicleAvailabilityIndex availabilityIndex,
+                            BookingCalendar bookingCalendar,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${lease.hold.ttl-seconds:120}") long ttlSeconds,
+                            @Value("${lease.hold.max-per-customer:2}") int maxHoldsPerCustomer,
+                            @Value("${lease.hold.tick-ms:1000}") long tickMillis,
+                            @Value("${lease.hold.wheel-size:512}") int wheelSize) {
+        this.availabilityIndex = availabilityIndex;
+        this.bookingCalendar = bookingCalendar;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxHoldsPerCustomer = maxHoldsPerCustomer;
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        Gauge.builder("lease.holds.active", holdsById, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    /**
+     * Holds the vehicle for the customer, or fails with a conflict if it is leased, held by someone else, or
+     * booked at any point before the hold would expire, since such a hold could not be confirmed.
+     */
+    public LeaseHold placeHold(String customerId, String vehicleId) {
+        // The index rejects vehicles that are plainly unavailable without a round trip to the database.
+        VehicleRentalInfo indexed = availabilityIndex.findById(vehicleId)
+                .orElseThrow(() -> new IllegalArgumentException("Vehicle not found"));
+        if (indexed.getCurrentStatus() != VehicleCurrentStatus.IDEAL) {
+            throw new LeaseConflictException("Vehicle is not available for lease.");
+        }
+
+        ActiveHold existing = holdsByVehicle.get(vehicleId);
+        if (existing != null && existing.customerId.equals(customerId) && !existing.isExpired()) {
+            return existing.toView();
+        }
+
+        // Either a lease start committed first and is seen here, or the hold is in place before it checks.
+        return transactionTemplate.execute(status -> {
+            VehicleRentalInfo vehicle = entityManager.find(VehicleRentalInfo.class, vehicleId, LockModeType.PESSIMISTIC_WRITE);
+            if (vehicle == null) {
+                throw new IllegalArgumentException("Vehicle not found");
+            }
+            if (vehicle.getCurrentStatus() != VehicleCurrentStatus.IDEAL) {
+                throw new LeaseConflictException("Vehicle is not available for lease.");
+            }
+            long expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+            if (!bookingCalendar.isFree(vehicleId, LocalDateTime.now(), toLocalDateTime(expiresAtMillis))) {
+                throw new LeaseConflictException("Vehicle is booked during the hold period.");
+            }
+            return register(customerId, vehicleId, expiresAtMillis);
+        });
+    }
+
+    private LeaseHold register(String customerId, String vehicleId, long expiresAtMillis) {
+        acquireCustomerSlot(customerId);
+        ActiveHold hold = new ActiveHold(UUID.randomUUID().toString(), customerId, vehicleId, expiresAtMillis);
+        ActiveHold previous;
+        while ((previous = holdsByVehicle.putIfAbsent(vehicleId, hold)) != null) {
+            if (previous.isExpired()) {
+                // Expired but not yet swept by the wheel: clear it and try again.
+                remove(previous);
+                holdsByVehicle.remove(vehicleId, previous);
+                continue;
+            }
+            releaseCustomerSlot(customerId);
+            if (previous.customerId.equals(customerId)) {
+                return previous.toView();
+            }
+            throw new LeaseConflictException("Vehicle is held by another customer.");
+        }
+        holdsById.put(hold.holdId, hold);
+        hold.timeout = wheel.schedule(hold, hold.expiresAtMillis);
+        return hold.toView();
+    }
+
+    /**
+     * Returns the customer's live hold, or fails with a conflict if it has expired or belongs to someone else.
+     */
+    public LeaseHold requireHold(String holdId, String customerId) {
+        ActiveHold hold = holdsById.get(holdId);
+        if (hold == null || hold.isExpired() || !hold.customerId.equals(customerId)) {
+            throw new LeaseConflictException("Hold has expired or does not exist.");
+        }
+        return hold.toView();
+    }
+
+    public boolean release(String holdId, String customerId) {
+        ActiveHold hold = holdsById.get(holdId);
+        return hold != null && hold.customerId.equals(customerId) && remove(hold);
+    }
+
+    public boolean isHeld(String vehicleId) {
+        ActiveHold hold = holdsByVehicle.get(vehicleId);
+        return hold != null && !hold.isExpired();
+    }
+
+    public boolean isHeldByOther(String vehicleId, String customerId) {
+        ActiveHold hold = holdsByVehicle.get(vehicleId);
+        return hold != null && !hold.isExpired() && !hold.customerId.equals(customerId);
+    }
+
+    @Scheduled(fixedRateString = "${lease.hold.tick-ms:1000}")
+    public void expireHolds() {
+        wheel.advance(System.currentTimeMillis(), this::remove);
+    }
+
+    private boolean remove(ActiveHold hold) {
+        if (!holdsById.remove(hold.holdId, hold)) {
+            return false;
+        }
+        holdsByVehicle.remove(hold.vehicleId, hold);
+        releaseCustomerSlot(hold.customerId);
+        if (hold.timeout != null) {
+            hold.timeout.cancel();
+        }
+        // Lapsed or released holds hand the vehicle back; a confirmed one finds it ON_LEASE and is ignored.
+        eventPublisher.publishEvent(new VehicleReleasedEvent(hold.vehicleId));
+        return true;
+    }
+
+    private void acquireCustomerSlot(String customerId) {
+        boolean[] acquired = new boolean[1];
+        holdsPerCustomer.compute(customerId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxHoldsPerCustomer) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            throw new IllegalArgumentException("Customer can hold at most " + maxHoldsPerCustomer + " vehicles at a time.");
+        }
+    }
+
+    private void releaseCustomerSlot(String customerId) {
+        holdsPerCustomer.computeIfPresent(customerId, (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class ActiveHold {
+
+        private final String holdId;
+        private final String customerId;
+        private final String vehicleId;
+        private final long expiresAtMillis;
+        private volatile HashedTimingWheel.Timeout<ActiveHold> timeout;
+
+        private ActiveHold(String holdId, String customerId, String vehicleId, long expiresAtMillis) {
+            this.holdId = holdId;
+            this.customerId = customerId;
+            this.vehicleId = vehicleId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        // The wheel sweeps once per tick; checking the deadline as well keeps expiry exact for callers.
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+
+        LeaseHold toView() {
+            return new LeaseHold(holdId, customerId, vehicleId, toLocalDateTime(expiresAtMillis));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work that lost an optimistic-locking race, with bounded exponential backoff
+ * and jitter. The action must open its own transaction so each attempt re-reads fresh state.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    public OptimisticRetryExecutor(@Value("${lease.retry.max-attempts:4}") int maxAttempts,
+                                   @Value("${lease.retry.initial-backoff-ms:10}") long initialBackoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("{} still conflicting after {} attempts.", operation, attempt);
+                    throw new LeaseConflictException(operation + " conflicted with a concurrent update, please retry.");
+                }
+                long backoff = initialBackoffMillis << (attempt - 1);
+                logger.debug("{} hit an optimistic lock conflict on attempt {}, retrying in ~{} ms.", operation, attempt, backoff);
+                sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LeaseConflictException("Interrupted while retrying a conflicting lease update.");
+        }
+    }
+}
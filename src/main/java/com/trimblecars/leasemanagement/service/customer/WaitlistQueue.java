@@ -0,0 +1,159 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Fair in-memory waitlist. Within each vehicle type, waiters with identical criteria share a FIFO group, so a
+ * group either accepts a vehicle as a whole or not at all. Groups are indexed by price limit and then seat
+ * minimum; a released vehicle only visits the groups it satisfies and compares their heads, so matching cost
+ * grows with the number of distinct criteria rather than the number of waiters, and no eligible waiter is
+ * ever skipped.
+ */
+public class WaitlistQueue {
+
+    private final ConcurrentHashMap<String, TypeQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Queued> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void add(Waiter waiter) {
+        Queued queued = new Queued(waiter, key(waiter.vehicleType()), sequence.incrementAndGet());
+        entries.put(waiter.entryId(), queued);
+        TypeQueue queue = queues.computeIfAbsent(queued.type(), t -> new TypeQueue());
+        synchronized (queue) {
+            queue.put(queued);
+        }
+    }
+
+    public boolean remove(String entryId) {
+        Queued queued = entries.remove(entryId);
+        if (queued == null) {
+            return false;
+        }
+        TypeQueue queue = queues.get(queued.type());
+        synchronized (queue) {
+            queue.remove(queued);
+        }
+        return true;
+    }
+
+    /**
+     * Offers the vehicle to the longest-waiting waiter whose criteria it meets and for whom {@code tryOffer}
+     * succeeds. That waiter leaves the queue; waiters for whom the offer fails keep their place.
+     * <p>
+     * {@code tryOffer} runs outside the queue's lock, with the candidate taken out so no concurrent offer can
+     * pick it too. If it throws, the candidate is put back and the exception propagates without trying anyone
+     * else, which lets the caller stop as soon as the vehicle itself can no longer be offered.
+     */
+    public Waiter offer(VehicleRentalInfo vehicle, Predicate<Waiter> tryOffer) {
+        TypeQueue queue = vehicle.getType() == null ? null : queues.get(key(vehicle.getType()));
+        if (queue == null) {
+            return null;
+        }
+        Set<String> declined = new HashSet<>();
+        while (true) {
+            Queued candidate;
+            synchronized (queue) {
+                candidate = queue.poll(vehicle, declined);
+            }
+            if (candidate == null) {
+                return null;
+            }
+
+            boolean offered = false;
+            try {
+                offered = tryOffer.test(candidate.waiter());
+            } finally {
+                if (!offered) {
+                    declined.add(candidate.waiter().entryId());
+                    synchronized (queue) {
+                        // Back in its original place, unless the customer left while the offer was being made.
+                        if (entries.get(candidate.waiter().entryId()) == candidate) {
+                            queue.put(candidate);
+                        }
+                    }
+                }
+            }
+            if (offered) {
+                entries.remove(candidate.waiter().entryId(), candidate);
+                return candidate.waiter();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(String vehicleType) {
+        return vehicleType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public record Waiter(String entryId, String customerId, String vehicleType,
+                         Integer minSeatingCapacity, Double maxDailyPrice) {
+    }
+
+    private record Queued(Waiter waiter, String type, long sequence) {
+
+        double maxPrice() {
+            return waiter.maxDailyPrice() == null ? Double.POSITIVE_INFINITY : waiter.maxDailyPrice();
+        }
+
+        int minSeats() {
+            return waiter.minSeatingCapacity() == null ? Integer.MIN_VALUE : waiter.minSeatingCapacity();
+        }
+    }
+
+    // One type's waiters: price limit -> seat minimum -> FIFO of waiters by arrival. Guarded by its own monitor.
+    private static final class TypeQueue {
+
+        private final TreeMap<Double, TreeMap<Integer, TreeMap<Long, Queued>>> groups = new TreeMap<>();
+
+        private void put(Queued queued) {
+            groups.computeIfAbsent(queued.maxPrice(), price -> new TreeMap<>())
+                    .computeIfAbsent(queued.minSeats(), seats -> new TreeMap<>())
+                    .put(queued.sequence(), queued);
+        }
+
+        private void remove(Queued queued) {
+            TreeMap<Integer, TreeMap<Long, Queued>> bySeats = groups.get(queued.maxPrice());
+            TreeMap<Long, Queued> group = bySeats == null ? null : bySeats.get(queued.minSeats());
+            if (group == null || group.remove(queued.sequence()) == null || !group.isEmpty()) {
+                return;
+            }
+            bySeats.remove(queued.minSeats());
+            if (bySeats.isEmpty()) {
+                groups.remove(queued.maxPrice());
+            }
+        }
+
+        // Takes out the longest-waiting waiter the vehicle satisfies, skipping those already declined this round.
+        private Queued poll(VehicleRentalInfo vehicle, Set<String> declined) {
+            Queued oldest = null;
+            for (TreeMap<Integer, TreeMap<Long, Queued>> bySeats
+                    : groups.tailMap(vehicle.getDailyRentalPrice(), true).values()) {
+                for (TreeMap<Long, Queued> group : bySeats.headMap(vehicle.getSeatingCapacity(), true).values()) {
+                    for (Queued queued : group.values()) {
+                        if (!declined.contains(queued.waiter().entryId())) {
+                            if (oldest == null || queued.sequence() < oldest.sequence()) {
+                                oldest = queued;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            if (oldest != null) {
+                remove(oldest);
+            }
+            return oldest;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.dto.LeaseHold;
+import com.trimblecars.leasemanagement.dto.VehicleSearchRequest;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.model.customer.WaitlistEntry;
+import com.trimblecars.leasemanagement.model.customer.WaitlistStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.customer.WaitlistEntryRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.customer.WaitlistQueue.Waiter;
+import com.trimblecars.leasemanagement.service.owner.VehicleReleasedEvent;
+import com.trimblecars.leasemanagement.service.owner.VehicleSearchIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Waitlist for customers who could not find a vehicle. Entries are persisted in {@code waitlist_entry} and
+ * mirrored in a {@link WaitlistQueue}; whenever a vehicle is released, the longest-waiting matching customer
+ * is offered it as a {@link LeaseHold} they can confirm like any other hold.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final EndCustomerRepository customerRepository;
+    private final VehicleRentalInfoRepository vehicleRepository;
+    private final VehicleSearchIndex searchIndex;
+    private final LeaseHoldService leaseHoldService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final WaitlistQueue queue = new WaitlistQueue();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           EndCustomerRepository customerRepository,
+                           VehicleRentalInfoRepository vehicleRepository,
+                           VehicleSearchIndex searchIndex,
+                           LeaseHoldService leaseHoldService,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.waitlistRepository = waitlistRepository;
+        this.customerRepository = customerRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.searchIndex = searchIndex;
+        this.leaseHoldService = leaseHoldService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("lease.waitlist.size", queue, WaitlistQueue::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<WaitlistEntry> waiting = waitlistRepository.findByStatusOrderByCreatedAtAsc(WaitlistStatus.WAITING);
+        waiting.forEach(entry -> queue.add(toWaiter(entry)));
+        logger.info("Waitlist loaded with {} waiting customers.", waiting.size());
+    }
+
+    public WaitlistEntry join(String customerId, String vehicleType, Integer minSeatingCapacity, Double maxDailyPrice) {
+        if (vehicleType == null || vehicleType.isBlank()) {
+            throw new IllegalArgumentException("Vehicle type is required.");
+        }
+        if (!customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setCustomerId(customerId);
+        entry.setVehicleType(vehicleType.trim());
+        entry.setMinSeatingCapacity(minSeatingCapacity);
+        entry.setMaxDailyPrice(maxDailyPrice);
+        entry.setCreatedAt(LocalDateTime.now());
+        waitlistRepository.save(entry);
+        queue.add(toWaiter(entry));
+
+        offerAvailableNow(entry);
+        return entry;
+    }
+
+    public List<WaitlistEntry> getEntries(String customerId) {
+        return waitlistRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
+    }
+
+    public boolean leave(String entryId, String customerId) {
+        Integer cancelled = transactionTemplate.execute(status -> waitlistRepository.cancel(entryId, customerId));
+        if (cancelled == null || cancelled == 0) {
+            return false;
+        }
+        queue.remove(entryId);
+        return true;
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVehicleReleased(VehicleReleasedEvent event) {
+        // Read from the database: the availability index is refreshed by its own after-commit callback,
+        // which may not have run yet.
+        VehicleRentalInfo vehicle = vehicleRepository.findById(event.vehicleId()).orElse(null);
+        if (vehicle == null || vehicle.getCurrentStatus() != VehicleCurrentStatus.IDEAL
+                || leaseHoldService.isHeld(vehicle.getId())) {
+            return;
+        }
+
+        LeaseHold[] offered = new LeaseHold[1];
+        Waiter waiter;
+        try {
+            waiter = queue.offer(vehicle, candidate -> {
+                try {
+                    offered[0] = leaseHoldService.placeHold(candidate.customerId(), vehicle.getId());
+                    return true;
+                } catch (IllegalArgumentException ex) {
+                    // This customer is at their hold limit; the next waiter may still take the vehicle.
+                    return false;
+                }
+            });
+        } catch (LeaseConflictException ex) {
+            // The vehicle itself was taken or cannot be booked, so no other waiter can have it either.
+            logger.debug("Vehicle {} could not be offered from the waitlist: {}", vehicle.getId(), ex.getMessage());
+            return;
+        }
+        if (waiter == null) {
+            return;
+        }
+
+        Integer updated = transactionTemplate.execute(status ->
+                waitlistRepository.markOffered(waiter.entryId(), vehicle.getId(), offered[0].getHoldId()));
+        if (updated == null || updated == 0) {
+            // The customer left the waitlist meanwhile; releasing the hold re-offers the vehicle.
+            leaseHoldService.release(offered[0].getHoldId(), waiter.customerId());
+            return;
+        }
+        logger.info("Offered vehicle {} to waitlisted customer {} with hold {}.",
+                vehicle.getId(), waiter.customerId(), offered[0].getHoldId());
+    }
+
+    // A matching vehicle may already be free; offer it now rather than waiting for the next release.
+    private void offerAvailableNow(WaitlistEntry entry) {
+        VehicleSearchRequest criteria = new VehicleSearchRequest();
+        criteria.setType(entry.getVehicleType());
+        criteria.setMaxPrice(entry.getMaxDailyPrice());
+        criteria.setCurrentStatus(VehicleCurrentStatus.IDEAL);
+        try {
+            searchIndex.findCheapestMatching(criteria, vehicle ->
+                            (entry.getMinSeatingCapacity() == null || vehicle.getSeatingCapacity() >= entry.getMinSeatingCapacity())
+                                    && !leaseHoldService.isHeld(vehicle.getId()), 1)
+                    .forEach(vehicle -> eventPublisher.publishEvent(new VehicleReleasedEvent(vehicle.getId())));
+        } catch (ServiceBusyException ex) {
+            logger.debug("Search index not ready; waitlist entry {} waits for the next release.", entry.getId());
+        }
+    }
+
+    private static Waiter toWaiter(WaitlistEntry entry) {
+        return new Waiter(entry.getId(), entry.getCustomerId(), entry.getVehicleType(),
+                entry.getMinSeatingCapacity(), entry.getMaxDailyPrice());
+    }
+}
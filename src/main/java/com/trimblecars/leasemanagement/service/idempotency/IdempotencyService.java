@@ -0,0 +1,182 @@
+package com.trimblecars.leasemanagement.service.idempotency;
+
+import com.trimblecars.leasemanagement.cache.ExpiringCache;
+import com.trimblecars.leasemanagement.model.idempotency.IdempotentResponse;
+import com.trimblecars.leasemanagement.repository.idempotency.IdempotentResponseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the responses to requests sent with an {@code Idempotency-Key}. Completed responses live in a
+ * bounded {@link ExpiringCache} backed by the {@code idempotent_response} table, so a retry is answered from
+ * memory and still recognised after eviction or a restart. Duplicates that arrive while the first request
+ * is still running wait on its future instead of executing again; that collapsing is per instance.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotentResponseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExpiringCache<String, StoredResponse> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final Counter replays;
+
+    public IdempotencyService(IdempotentResponseRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = new ExpiringCache<>(cacheSize);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.replays = meterRegistry.counter("idempotency.replays");
+    }
+
+    /**
+     * Returns the stored response for the key, from memory or else from the database, or null if there is none.
+     */
+    public StoredResponse find(String key) {
+        StoredResponse cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        IdempotentResponse row = repository.findLive(key, LocalDateTime.now()).orElse(null);
+        if (row == null) {
+            return null;
+        }
+        StoredResponse stored = new StoredResponse(row.getFingerprint(), row.getStatusCode(), row.getContentType(), row.getBody());
+        cache.put(key, stored, row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return stored;
+    }
+
+    /**
+     * Claims the key for execution. Returns null if the caller now owns it and must call {@link #complete};
+     * otherwise returns the future of the execution already running, or already finished, under this key.
+     */
+    public CompletableFuture<StoredResponse> begin(String key) {
+        CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, claim);
+        if (running != null) {
+            return running;
+        }
+        // The previous owner caches its response before releasing the key, so this closes the gap after find().
+        StoredResponse stored = cache.get(key);
+        if (stored != null) {
+            inFlight.remove(key, claim);
+            claim.complete(stored);
+            return claim;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the owner's response and hands it to any waiting duplicates. A null response means the request
+     * failed without one; waiters are failed too and nothing is stored, so the client can retry.
+     */
+    public void complete(String key, StoredResponse response) {
+        if (response != null && isStorable(response.statusCode())) {
+            long expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+            cache.put(key, response, expiresAtMillis);
+            persist(key, response, expiresAtMillis);
+        }
+        CompletableFuture<StoredResponse> waiting = inFlight.remove(key);
+        if (waiting == null) {
+            return;
+        }
+        if (response == null) {
+            waiting.completeExceptionally(new IllegalStateException("Original request failed."));
+        } else {
+            waiting.complete(response);
+        }
+    }
+
+    public void recordReplay() {
+        replays.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        cache.evictExpired();
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} expired idempotency keys.", deleted);
+        }
+    }
+
+    /**
+     * Keys are scoped to the caller and endpoint, so two clients picking the same key never see each other's responses.
+     */
+    public static String scopedKey(String authorization, String method, String path, String clientKey) {
+        MessageDigest digest = sha256();
+        for (String part : new String[]{authorization == null ? "" : authorization, method, path, clientKey}) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String fingerprint(String queryString, byte[] body) {
+        MessageDigest digest = sha256();
+        if (queryString != null) {
+            digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        digest.update(body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Server errors and auth or rate-limit rejections are worth retrying for real, so they are not replayed.
+    static boolean isStorable(int statusCode) {
+        return statusCode < 500 && statusCode != 401 && statusCode != 403 && statusCode != 429;
+    }
+
+    private void persist(String key, StoredResponse response, long expiresAtMillis) {
+        IdempotentResponse row = new IdempotentResponse();
+        row.setId(key);
+        row.setFingerprint(response.fingerprint());
+        row.setStatusCode(response.statusCode());
+        row.setContentType(response.contentType());
+        row.setBody(response.body());
+        row.setCreatedAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.save(row));
+        } catch (DataAccessException ex) {
+            // The in-memory copy still covers retries to this instance; do not fail a request that already ran.
+            logger.warn("Could not persist idempotent response for key {}.", key, ex);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public record StoredResponse(String fingerprint, int statusCode, String contentType, byte[] body) {
+    }
+}
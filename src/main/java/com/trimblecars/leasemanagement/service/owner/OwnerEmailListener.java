@@ -0,0 +1,24 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.service.user.RegisteredEmailFilter;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OwnerEmailListener {
+
+    private final RegisteredEmailFilter registeredEmailFilter;
+
+    public OwnerEmailListener(@Lazy RegisteredEmailFilter registeredEmailFilter) {
+        this.registeredEmailFilter = registeredEmailFilter;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onOwnerSaved(VehicleOwnerInfo owner) {
+        registeredEmailFilter.addOwner(owner.getEmail());
+    }
+}
@@ -0,0 +1,163 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of vehicle ids by {@link VehicleCurrentStatus}, holding the last committed snapshot
+ * of each vehicle. Built at startup and kept current by {@link VehicleAvailabilityListener} and by
+ * callers that change vehicles through bulk updates, which bypass entity listeners.
+ * Snapshots are applied in {@code @Version} order, so late after-commit callbacks cannot regress it.
+ * Accepted snapshots are forwarded to every {@link VehicleSnapshotListener}.
+ */
+@Component
+public class VehicleAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleAvailabilityIndex.class);
+
+    private static final int NOTIFY_STRIPES = 64;
+
+    private final VehicleRentalInfoRepository vehicleRepository;
+    private final List<VehicleSnapshotListener> snapshotListeners;
+    private final ConcurrentHashMap<VehicleCurrentStatus, Set<String>> idsByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VehicleRentalInfo> vehicles = new ConcurrentHashMap<>();
+    private final Object[] notifyLocks = new Object[NOTIFY_STRIPES];
+    // Until the index is warmed every query must fall through to the database.
+    private volatile boolean warmed;
+
+    public VehicleAvailabilityIndex(VehicleRentalInfoRepository vehicleRepository,
+                                    List<VehicleSnapshotListener> snapshotListeners) {
+        this.vehicleRepository = vehicleRepository;
+        this.snapshotListeners = snapshotListeners;
+        for (VehicleCurrentStatus status : VehicleCurrentStatus.values()) {
+            idsByStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+        for (int i = 0; i < NOTIFY_STRIPES; i++) {
+            notifyLocks[i] = new Object();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        long[] count = new long[1];
+        try (Stream<VehicleRentalInfo> all = vehicleRepository.streamAll()) {
+            all.forEach(vehicle -> {
+                refresh(vehicle);
+                count[0]++;
+            });
+        }
+        warmed = true;
+        snapshotListeners.forEach(VehicleSnapshotListener::onWarmed);
+        logger.info("Vehicle availability index warmed with {} vehicles.", count[0]);
+    }
+
+    public List<VehicleRentalInfo> findByStatus(VehicleCurrentStatus status) {
+        if (!warmed) {
+            return vehicleRepository.findByCurrentStatus(status);
+        }
+        List<VehicleRentalInfo> result = new ArrayList<>();
+        for (String id : idsByStatus.get(status)) {
+            VehicleRentalInfo vehicle = vehicles.get(id);
+            // The id set and snapshot map are updated separately; the snapshot is authoritative.
+            if (vehicle != null && vehicle.getCurrentStatus() == status) {
+                result.add(vehicle);
+            }
+        }
+        return result;
+    }
+
+    public Optional<VehicleRentalInfo> findById(String vehicleId) {
+        if (!warmed) {
+            return vehicleRepository.findById(vehicleId);
+        }
+        return Optional.ofNullable(vehicles.get(vehicleId));
+    }
+
+    public void refresh(VehicleRentalInfo vehicle) {
+        boolean[] accepted = new boolean[1];
+        vehicles.compute(vehicle.getId(), (id, current) -> {
+            if (current != null && versionOf(current) > versionOf(vehicle)) {
+                return current;
+            }
+            if (current != null) {
+                idsByStatus.get(current.getCurrentStatus()).remove(id);
+            }
+            idsByStatus.get(vehicle.getCurrentStatus()).add(id);
+            accepted[0] = true;
+            return vehicle;
+        });
+        if (accepted[0]) {
+            notifyListeners(vehicle.getId());
+        }
+    }
+
+    public void remove(String vehicleId) {
+        boolean[] removed = new boolean[1];
+        vehicles.computeIfPresent(vehicleId, (id, current) -> {
+            idsByStatus.get(current.getCurrentStatus()).remove(id);
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            notifyListeners(vehicleId);
+        }
+    }
+
+    public void refreshAfterCommit(VehicleRentalInfo vehicle) {
+        afterCommit(() -> refresh(vehicle));
+    }
+
+    public void removeAfterCommit(String vehicleId) {
+        afterCommit(() -> remove(vehicleId));
+    }
+
+    // Runs after the map update has returned, never inside compute. Each call publishes the vehicle's state as
+    // of now under its stripe, so a call that lost the race to a newer update repeats that update instead of
+    // rolling it back.
+    private void notifyListeners(String vehicleId) {
+        synchronized (notifyLocks[Math.floorMod(vehicleId.hashCode(), NOTIFY_STRIPES)]) {
+            VehicleRentalInfo current = vehicles.get(vehicleId);
+            for (VehicleSnapshotListener listener : snapshotListeners) {
+                if (current == null) {
+                    listener.onVehicleRemoved(vehicleId);
+                } else {
+                    listener.onVehicleChanged(current);
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long versionOf(VehicleRentalInfo vehicle) {
+        return vehicle.getVersion() == null ? -1 : vehicle.getVersion();
+    }
+}
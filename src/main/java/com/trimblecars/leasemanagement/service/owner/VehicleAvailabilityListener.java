@@ -0,0 +1,29 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VehicleAvailabilityListener {
+
+    private final VehicleAvailabilityIndex availabilityIndex;
+
+    public VehicleAvailabilityListener(@Lazy VehicleAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onVehicleSaved(VehicleRentalInfo vehicle) {
+        availabilityIndex.refreshAfterCommit(vehicle);
+    }
+
+    @PostRemove
+    public void onVehicleRemoved(VehicleRentalInfo vehicle) {
+        availabilityIndex.removeAfterCommit(vehicle.getId());
+    }
+}
@@ -5,6 +5,7 @@ import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
 
 import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
 import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import com.trimblecars.leasemanagement.service.user.RegisteredEmailFilter;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,15 +18,18 @@ public class VehicleOwnerService {
 
     private final VehicleOwnerRepository vehicleOwnerRepository;
     private final VehicleRentalService vehicleRentalService;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
-    public VehicleOwnerService(VehicleOwnerRepository vehicleOwnerRepository, VehicleRentalService vehicleRentalService) {
+    public VehicleOwnerService(VehicleOwnerRepository vehicleOwnerRepository, VehicleRentalService vehicleRentalService, RegisteredEmailFilter registeredEmailFilter) {
         this.vehicleOwnerRepository = vehicleOwnerRepository;
         this.vehicleRentalService = vehicleRentalService;
+        this.registeredEmailFilter = registeredEmailFilter;
     }
 
     @Transactional
     public VehicleOwnerInfo registerOwner(VehicleOwnerInfo owner) {
-        if (vehicleOwnerRepository.existsByEmail(owner.getEmail())) {
+        if (registeredEmailFilter.mightBeRegisteredOwner(owner.getEmail())
+                && vehicleOwnerRepository.existsByEmail(owner.getEmail())) {
             throw new IllegalArgumentException("Owner with this email already exists.");
         }
         return vehicleOwnerRepository.save(owner);
@@ -0,0 +1,8 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+/**
+ * Published when a vehicle may have become available for lease again, e.g. a lease ended, an admin set it
+ * back to IDEAL or a hold on it lapsed. Listeners must re-check the vehicle's current state.
+ */
+public record VehicleReleasedEvent(String vehicleId) {
+}
@@ -0,0 +1,362 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.dto.VehicleSearchRequest;
+import com.trimblecars.leasemanagement.dto.VehicleSearchResult;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Columnar in-memory index for faceted vehicle search. Each vehicle occupies a slot; every facet value
+ * owns a {@link BitSet} of slots, so a query is a handful of bitwise ANDs. A price-ordered key set serves
+ * both price ranges, as a sub-range of its keys, and sorted sweeps.
+ * Fed incrementally by {@link VehicleAvailabilityIndex}.
+ */
+@Component
+public class VehicleSearchIndex implements VehicleSnapshotListener {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final Map<String, FacetColumn> columns = new LinkedHashMap<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final List<VehicleRentalInfo> snapshots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private double[] prices = new double[1024];
+    private final TreeSet<PriceKey> priceOrder = new TreeSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean warmed;
+
+    public VehicleSearchIndex() {
+        addColumn("make", VehicleRentalInfo::getMake);
+        addColumn("model", VehicleRentalInfo::getModel);
+        addColumn("type", VehicleRentalInfo::getType);
+        addColumn("fuelType", VehicleRentalInfo::getFuelType);
+        addColumn("transmission", VehicleRentalInfo::getTransmission);
+        addColumn("seatingCapacity", vehicle -> String.valueOf(vehicle.getSeatingCapacity()));
+        addColumn("airConditioning", vehicle -> String.valueOf(vehicle.isAirConditioning()));
+        addColumn("gpsEnabled", vehicle -> String.valueOf(vehicle.isGpsEnabled()));
+        addColumn("insuranceAvailable", vehicle -> String.valueOf(vehicle.isInsuranceAvailable()));
+        addColumn("currentStatus", vehicle -> vehicle.getCurrentStatus().name());
+    }
+
+    private void addColumn(String name, Function<VehicleRentalInfo, String> extractor) {
+        columns.put(name, new FacetColumn(extractor));
+    }
+
+    @Override
+    public void onVehicleChanged(VehicleRentalInfo vehicle) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(vehicle.getId());
+            if (slot == null) {
+                slot = allocateSlot();
+                slotById.put(vehicle.getId(), slot);
+            } else {
+                unindex(slot);
+            }
+            snapshots.set(slot, vehicle);
+            prices[slot] = vehicle.getDailyRentalPrice();
+            priceOrder.add(new PriceKey(prices[slot], slot));
+            live.set(slot);
+            for (FacetColumn column : columns.values()) {
+                column.add(slot, vehicle);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onVehicleRemoved(String vehicleId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(vehicleId);
+            if (slot != null) {
+                unindex(slot);
+                snapshots.set(slot, null);
+                live.clear(slot);
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onWarmed() {
+        warmed = true;
+    }
+
+    public VehicleSearchResult search(VehicleSearchRequest request) {
+        checkSearchable(request);
+        int page = Math.max(0, request.getPage());
+        int size = Math.min(Math.max(1, request.getSize()), MAX_PAGE_SIZE);
+        Map<String, String> filters = filtersOf(request);
+
+        lock.readLock().lock();
+        try {
+            BitSet base = withinPriceRange(request.getMinPrice(), request.getMaxPrice());
+            BitSet matches = applyFilters(base, filters, null);
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            columns.forEach((name, column) -> {
+                // Counts ignore the facet's own filter so clients can show the alternatives for it.
+                BitSet scope = filters.containsKey(name) ? applyFilters(base, filters, name) : matches;
+                facets.put(name, column.count(scope));
+            });
+
+            List<VehicleRentalInfo> vehicles = new ArrayList<>(size);
+            long skip = (long) page * size;
+            for (int slot = matches.nextSetBit(0); slot >= 0 && vehicles.size() < size; slot = matches.nextSetBit(slot + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    vehicles.add(snapshots.get(slot));
+                }
+            }
+            return new VehicleSearchResult(matches.cardinality(), page, size, vehicles, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the cheapest vehicles matching the request's filters that also pass
+     * {@code vehicleFilter}. Paging and facet fields of the request are ignored.
+     */
+    public List<VehicleRentalInfo> findCheapestMatching(VehicleSearchRequest request,
+                                                        Predicate<VehicleRentalInfo> vehicleFilter, int limit) {
+        checkSearchable(request);
+        lock.readLock().lock();
+        try {
+            BitSet matches = applyFilters(withinPriceRange(request.getMinPrice(), request.getMaxPrice()),
+                    filtersOf(request), null);
+            List<VehicleRentalInfo> vehicles = new ArrayList<>(limit);
+            for (PriceKey key : priceOrder) {
+                if (vehicles.size() >= limit) {
+                    break;
+                }
+                if (matches.get(key.slot()) && vehicleFilter.test(snapshots.get(key.slot()))) {
+                    vehicles.add(snapshots.get(key.slot()));
+                }
+            }
+            return vehicles;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the requested page of vehicles in one of the given statuses and not in {@code excludedIds},
+     * in daily price order, along with the total number of matches. The total is a bitset cardinality and
+     * the price sweep stops once the page is full, so later pages do not cost a walk over the whole fleet.
+     */
+    public VehicleSearchResult findByPrice(Set<VehicleCurrentStatus> statuses, Collection<String> excludedIds,
+                                           boolean descending, int page, int size) {
+        if (!warmed) {
+            throw new ServiceBusyException("Vehicle search is warming up, please retry shortly.");
+        }
+        page = Math.max(0, page);
+        size = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = new BitSet();
+            FacetColumn statusColumn = columns.get("currentStatus");
+            for (VehicleCurrentStatus status : statuses) {
+                BitSet bits = statusColumn.bitsByKey.get(normalize(status.name()));
+                if (bits != null) {
+                    matches.or(bits);
+                }
+            }
+            for (String vehicleId : excludedIds) {
+                Integer slot = slotById.get(vehicleId);
+                if (slot != null) {
+                    matches.clear(slot);
+                }
+            }
+
+            List<VehicleRentalInfo> vehicles = new ArrayList<>(size);
+            long skip = (long) page * size;
+            for (PriceKey key : descending ? priceOrder.descendingSet() : priceOrder) {
+                if (vehicles.size() >= size) {
+                    break;
+                }
+                if (!matches.get(key.slot())) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    vehicles.add(snapshots.get(key.slot()));
+                }
+            }
+            return new VehicleSearchResult(matches.cardinality(), page, size, vehicles, Map.of());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkSearchable(VehicleSearchRequest request) {
+        if (!warmed) {
+            throw new ServiceBusyException("Vehicle search is warming up, please retry shortly.");
+        }
+        Double minPrice = request.getMinPrice();
+        Double maxPrice = request.getMaxPrice();
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice.");
+        }
+    }
+
+    // Caller holds the read lock. Visits only the vehicles inside the range, not the whole fleet.
+    private BitSet withinPriceRange(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return (BitSet) live.clone();
+        }
+        PriceKey from = new PriceKey(minPrice == null ? Double.NEGATIVE_INFINITY : minPrice, Integer.MIN_VALUE);
+        PriceKey to = new PriceKey(maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice, Integer.MAX_VALUE);
+        BitSet base = new BitSet(snapshots.size());
+        for (PriceKey key : priceOrder.subSet(from, true, to, true)) {
+            base.set(key.slot());
+        }
+        return base;
+    }
+
+    private BitSet applyFilters(BitSet base, Map<String, String> filters, String excluded) {
+        BitSet result = (BitSet) base.clone();
+        filters.forEach((name, key) -> {
+            if (!name.equals(excluded)) {
+                BitSet bits = columns.get(name).bitsByKey.get(key);
+                if (bits == null) {
+                    result.clear();
+                } else {
+                    result.and(bits);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static Map<String, String> filtersOf(VehicleSearchRequest request) {
+        Map<String, String> filters = new HashMap<>();
+        putFilter(filters, "make", request.getMake());
+        putFilter(filters, "model", request.getModel());
+        putFilter(filters, "type", request.getType());
+        putFilter(filters, "fuelType", request.getFuelType());
+        putFilter(filters, "transmission", request.getTransmission());
+        putFilter(filters, "seatingCapacity", request.getSeatingCapacity());
+        putFilter(filters, "airConditioning", request.getAirConditioning());
+        putFilter(filters, "gpsEnabled", request.getGpsEnabled());
+        putFilter(filters, "insuranceAvailable", request.getInsuranceAvailable());
+        putFilter(filters, "currentStatus", request.getCurrentStatus() == null ? null : request.getCurrentStatus().name());
+        return filters;
+    }
+
+    private static void putFilter(Map<String, String> filters, String name, Object value) {
+        String key = normalize(value == null ? null : value.toString());
+        if (key != null) {
+            filters.put(name, key);
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        int slot = snapshots.size();
+        snapshots.add(null);
+        if (slot == prices.length) {
+            prices = Arrays.copyOf(prices, prices.length * 2);
+        }
+        return slot;
+    }
+
+    private void unindex(int slot) {
+        priceOrder.remove(new PriceKey(prices[slot], slot));
+        for (FacetColumn column : columns.values()) {
+            column.remove(slot);
+        }
+    }
+
+    private record PriceKey(double price, int slot) implements Comparable<PriceKey> {
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = Double.compare(price, other.price);
+            return byPrice != 0 ? byPrice : Integer.compare(slot, other.slot);
+        }
+    }
+
+    private static final class FacetColumn {
+
+        private final Function<VehicleRentalInfo, String> extractor;
+        private final Map<String, BitSet> bitsByKey = new HashMap<>();
+        private final Map<String, String> labelByKey = new HashMap<>();
+        // Key currently indexed for each slot, so removal never depends on a snapshot's live fields.
+        private final Map<Integer, String> keyBySlot = new HashMap<>();
+
+        private FacetColumn(Function<VehicleRentalInfo, String> extractor) {
+            this.extractor = extractor;
+        }
+
+        void add(int slot, VehicleRentalInfo vehicle) {
+            String value = extractor.apply(vehicle);
+            String key = normalize(value);
+            if (key != null) {
+                bitsByKey.computeIfAbsent(key, k -> new BitSet()).set(slot);
+                labelByKey.put(key, value.trim());
+                keyBySlot.put(slot, key);
+            }
+        }
+
+        void remove(int slot) {
+            String key = keyBySlot.remove(slot);
+            BitSet bits = key == null ? null : bitsByKey.get(key);
+            if (bits != null) {
+                bits.clear(slot);
+                if (bits.isEmpty()) {
+                    bitsByKey.remove(key);
+                    labelByKey.remove(key);
+                }
+            }
+        }
+
+        Map<String, Integer> count(BitSet scope) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            bitsByKey.forEach((key, bits) -> {
+                BitSet intersection = (BitSet) bits.clone();
+                intersection.and(scope);
+                int count = intersection.cardinality();
+                if (count > 0) {
+                    counts.put(labelByKey.get(key), count);
+                }
+            });
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+
+/**
+ * Receives committed vehicle snapshots from {@link VehicleAvailabilityIndex}. Calls for the same
+ * vehicle are serialized and never go back in {@code @Version} order, though the latest snapshot may be
+ * delivered more than once. Calls are made outside the index's map updates, so a listener may query it.
+ */
+public interface VehicleSnapshotListener {
+
+    void onVehicleChanged(VehicleRentalInfo vehicle);
+
+    void onVehicleRemoved(String vehicleId);
+
+    default void onWarmed() {
+    }
+}
@@ -4,10 +4,12 @@ package com.trimblecars.leasemanagement.service.user;
 import com.trimblecars.leasemanagement.model.auth.User;
 import com.trimblecars.leasemanagement.model.auth.UserRole;
 import com.trimblecars.leasemanagement.repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,29 +17,57 @@ import java.util.UUID;
 public class GoogleOAuth2Service {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final RegistrationService registrationService;
 
-    public GoogleOAuth2Service(UserRepository userRepository) {
+    public GoogleOAuth2Service(UserRepository userRepository, PrincipalCache principalCache, RegistrationService registrationService) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.registrationService = registrationService;
     }
 
     public User processOAuthPostLogin(OAuth2AuthenticationToken token) {
         Map<String, Object> attributes = token.getPrincipal().getAttributes();
         String email = (String) attributes.get("email");
         String name = (String) attributes.get("name");
+
+        // Returning users: served from the principal cache or one indexed read, with no write unless the name changed.
+        User cached = principalCache.get(email);
+        if (cached != null && (name == null || Objects.equals(name, cached.getUsername()))) {
+            return cached;
+        }
+
         Optional<User> existingUser = userRepository.findByEmail(email);
-        return existingUser.orElseGet(() -> {
-            User newUser = new User();
-            newUser.setEmail(email);
-            newUser.setUsername(name);
-            if (email.endsWith("@admin.com")) {
-                newUser.setRole(UserRole.ROLE_ADMIN);
-            } else if (email.endsWith("@company.com")) {
-                newUser.setRole(UserRole.ROLE_OWNER);
-            } else {
-                newUser.setRole(UserRole.ROLE_CUSTOMER);
-            }
-            newUser.setPassword(UUID.randomUUID().toString());
-            return newUser;
-        });
+        if (existingUser.isPresent()) {
+            return refresh(existingUser.get(), name);
+        }
+
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setUsername(name);
+        if (email.endsWith("@admin.com")) {
+            newUser.setRole(UserRole.ROLE_ADMIN);
+        } else if (email.endsWith("@company.com")) {
+            newUser.setRole(UserRole.ROLE_OWNER);
+        } else {
+            newUser.setRole(UserRole.ROLE_CUSTOMER);
+        }
+        newUser.setPassword(UUID.randomUUID().toString());
+
+        try {
+            return registrationService.registerOAuthUser(newUser);
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent first login for the same account won the insert; use its row.
+            return userRepository.findByEmail(email).map(user -> refresh(user, name)).orElseThrow(() -> ex);
+        }
+    }
+
+    private User refresh(User user, String name) {
+        if (name != null && !name.equals(user.getUsername())) {
+            user.setUsername(name);
+            user = userRepository.save(user);
+        }
+        principalCache.put(user);
+        return user;
     }
-}
\ No newline at end of file
+}
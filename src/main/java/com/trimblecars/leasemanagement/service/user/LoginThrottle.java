@@ -0,0 +1,122 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-email and per-client-IP rate limiting for login attempts.
+ * <p>
+ * Each bucket is a single long holding the bucket's theoretical arrival time (the GCRA form of a
+ * token bucket), so an attempt costs one CAS and no locking. Keys are hashed with a per-process
+ * secret seed into a fixed array of buckets: memory is bounded without eviction, a flood of new
+ * keys only ever shares a bucket with the few keys that hash alongside it, and an attacker who
+ * cannot see the seed cannot aim at the bucket of a particular email. A bucket that has fully
+ * refilled behaves exactly like a new one, so idle keys need no sweeping.
+ */
+@Component
+public class LoginThrottle {
+
+    // Marks a bucket that has never been used; System.nanoTime() can be any value, including 0.
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final Limiter emailLimiter;
+    private final Limiter ipLimiter;
+    private final long seed;
+
+    @Autowired
+    public LoginThrottle(@Value("${security.login-throttle.email.capacity:5}") int emailCapacity,
+                         @Value("${security.login-throttle.email.per-minute:5}") int emailPerMinute,
+                         @Value("${security.login-throttle.ip.capacity:30}") int ipCapacity,
+                         @Value("${security.login-throttle.ip.per-minute:30}") int ipPerMinute,
+                         @Value("${security.login-throttle.buckets:262144}") int buckets,
+                         MeterRegistry meterRegistry) {
+        this(emailCapacity, emailPerMinute, ipCapacity, ipPerMinute, buckets, new SecureRandom().nextLong(),
+                meterRegistry);
+    }
+
+    LoginThrottle(int emailCapacity, int emailPerMinute, int ipCapacity, int ipPerMinute, int buckets, long seed,
+                  MeterRegistry meterRegistry) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Login throttle bucket count must be positive: " + buckets);
+        }
+        this.seed = seed;
+        int size = Integer.highestOneBit(Math.min(buckets, 1 << 29) * 2 - 1);
+        this.emailLimiter = new Limiter("email", emailCapacity, emailPerMinute, size, meterRegistry);
+        this.ipLimiter = new Limiter("ip", ipCapacity, ipPerMinute, size, meterRegistry);
+    }
+
+    /**
+     * @return 0 when the attempt may proceed, otherwise the number of milliseconds until it would be allowed.
+     */
+    public long tryAcquire(String email, String clientIp) {
+        return tryAcquire(email, clientIp, System.nanoTime());
+    }
+
+    long tryAcquire(String email, String clientIp, long nowNanos) {
+        long ipWait = clientIp == null ? 0 : ipLimiter.tryAcquire(clientIp, nowNanos);
+        if (ipWait > 0) {
+            return ipWait;
+        }
+        return email == null ? 0 : emailLimiter.tryAcquire(email.toLowerCase(), nowNanos);
+    }
+
+    // Seeded FNV-1a with a final avalanche, so which keys share a bucket changes with every seed.
+    private long hash(String key) {
+        long hash = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private final class Limiter {
+
+        private final AtomicLongArray buckets;
+        private final int mask;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Limiter(String dimension, int capacity, int perMinute, int size, MeterRegistry meterRegistry) {
+            this.buckets = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                buckets.set(i, UNUSED);
+            }
+            this.mask = size - 1;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.burstNanos = intervalNanos * Math.max(1, capacity);
+            this.allowed = Counter.builder("auth.login.throttle").tag("dimension", dimension).tag("result", "allowed").register(meterRegistry);
+            this.rejected = Counter.builder("auth.login.throttle").tag("dimension", dimension).tag("result", "rejected").register(meterRegistry);
+        }
+
+        private long tryAcquire(String key, long now) {
+            int index = (int) hash(key) & mask;
+            while (true) {
+                long tat = buckets.get(index);
+                long base = tat == UNUSED || tat - now < 0 ? now : tat;
+                long next = base + intervalNanos;
+                if (next - now > burstNanos) {
+                    rejected.increment();
+                    return TimeUnit.NANOSECONDS.toMillis(next - now - burstNanos) + 1;
+                }
+                if (buckets.compareAndSet(index, tat, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.cache.ExpiringCache;
+import com.trimblecars.leasemanagement.model.auth.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PrincipalCache {
+
+    private final ExpiringCache<String, User> cache;
+    private final long ttlMillis;
+
+    public PrincipalCache(@Value("${security.principal-cache.size:10000}") int size,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.cache = new ExpiringCache<>(size);
+        this.ttlMillis = ttlSeconds * 1000;
+
+        FunctionCounter.builder("auth.principal.cache.hits", cache, ExpiringCache::getHits).register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.misses", cache, ExpiringCache::getMisses).register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", cache, ExpiringCache::size).register(meterRegistry);
+    }
+
+    public User get(String email) {
+        return cache.get(email);
+    }
+
+    public void put(User user) {
+        cache.put(user.getEmail(), user, System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+}
@@ -0,0 +1,83 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.cache.BloomFilter;
+import com.trimblecars.leasemanagement.repository.UserRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of emails already present in {@code users} and {@code vehicle_owner_info}.
+ * A negative answer means the email is definitely new and the existence query can be skipped;
+ * a positive answer still goes to the database. The unique constraints remain the final arbiter.
+ */
+@Component
+public class RegisteredEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    private static final String USER_PREFIX = "user:";
+    private static final String OWNER_PREFIX = "owner:";
+
+    private final UserRepository userRepository;
+    private final VehicleOwnerRepository vehicleOwnerRepository;
+    private final BloomFilter filter;
+    // Until the filter is warmed every lookup must fall through to the database.
+    private volatile boolean warmed;
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 VehicleOwnerRepository vehicleOwnerRepository,
+                                 @Value("${registration.email-filter.expected-emails:1000000}") long expectedEmails,
+                                 @Value("${registration.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.vehicleOwnerRepository = vehicleOwnerRepository;
+        this.filter = new BloomFilter(expectedEmails * 2, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        long[] count = new long[1];
+        try (Stream<String> emails = userRepository.streamAllEmails()) {
+            emails.forEach(email -> {
+                filter.put(USER_PREFIX + email);
+                count[0]++;
+            });
+        }
+        try (Stream<String> emails = vehicleOwnerRepository.streamAllEmails()) {
+            emails.forEach(email -> {
+                filter.put(OWNER_PREFIX + email);
+                count[0]++;
+            });
+        }
+        warmed = true;
+        logger.info("Registered email filter warmed with {} emails.", count[0]);
+    }
+
+    public boolean mightBeRegisteredUser(String email) {
+        return !warmed || filter.mightContain(USER_PREFIX + email);
+    }
+
+    public boolean mightBeRegisteredOwner(String email) {
+        return !warmed || filter.mightContain(OWNER_PREFIX + email);
+    }
+
+    public void addUser(String email) {
+        if (email != null) {
+            filter.put(USER_PREFIX + email);
+        }
+    }
+
+    public void addOwner(String email) {
+        if (email != null) {
+            filter.put(OWNER_PREFIX + email);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.config.BoundedPasswordEncoder;
+import com.trimblecars.leasemanagement.dto.BulkImportReport;
+import com.trimblecars.leasemanagement.dto.UserRequest;
+import com.trimblecars.leasemanagement.exception.ResourceAlreadyExistsException;
+import com.trimblecars.leasemanagement.exception.ServiceBusyException;
+import com.trimblecars.leasemanagement.model.admin.AdminUser;
+import com.trimblecars.leasemanagement.model.auth.User;
+import com.trimblecars.leasemanagement.model.auth.UserRole;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Creates a {@link User} together with its role profile in a single transaction, both for
+ * interactive sign-ups and for bulk imports of existing customer bases.
+ */
+@Service
+public class RegistrationService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationService.class);
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UserRepository userRepository;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int importChunkSize;
+    private final ThreadPoolExecutor importHashPool;
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    public RegistrationService(UserRepository userRepository,
+                               RegisteredEmailFilter registeredEmailFilter,
+                               PasswordEncoder passwordEncoder,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${registration.import.chunk-size:500}") int importChunkSize,
+                               @Value("${registration.import.hash-threads:0}") int importHashThreads) {
+        if (importChunkSize <= 0) {
+            throw new IllegalArgumentException("Import chunk size must be positive: " + importChunkSize);
+        }
+        this.userRepository = userRepository;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.importChunkSize = importChunkSize;
+        // Imports get their own pool, sized to leave cores for the login hashing pool. Only one import runs
+        // at a time and it never has more than a chunk queued, so the queue cannot overflow in normal use.
+        int poolSize = importHashThreads > 0
+                ? importHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.importHashPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importChunkSize), new CustomizableThreadFactory("import-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public User register(UserRequest request) {
+        validate(request);
+        if (registeredEmailFilter.mightBeRegisteredUser(request.getEmail())
+                && userRepository.existsByEmail(request.getEmail())) {
+            throw new ResourceAlreadyExistsException("Email already exists");
+        }
+
+        // Hash outside the transaction so no connection is held while BCrypt runs.
+        User user = newUser(request.getUsername(), request.getEmail(), passwordEncoder.encode(request.getPassword()), request.getRole());
+        return transactionTemplate.execute(status -> persistWithProfile(user));
+    }
+
+    public User registerOAuthUser(User user) {
+        return transactionTemplate.execute(status -> persistWithProfile(user));
+    }
+
+    /**
+     * @throws ServiceBusyException when another import is already running
+     */
+    public BulkImportReport importUsers(InputStream input, String format) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported import format: " + format);
+        }
+        if (!importing.compareAndSet(false, true)) {
+            throw new ServiceBusyException("A user import is already running.");
+        }
+
+        BulkImportReport report = new BulkImportReport();
+        List<ImportRow> chunk = new ArrayList<>(importChunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (csv) {
+                CsvReader records = new CsvReader(reader);
+                records.next(); // header: username,email,password,role
+                CsvRecord row;
+                while ((row = records.next()) != null) {
+                    CsvRecord record = row;
+                    if (!record.isBlank()) {
+                        addRow(record.line(), () -> parseCsv(record), chunk, report);
+                    }
+                }
+            } else {
+                String line;
+                long lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (!line.isBlank()) {
+                        String json = line;
+                        addRow(lineNumber, () -> objectMapper.readValue(json, UserRequest.class), chunk, report);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } finally {
+            importing.set(false);
+        }
+
+        logger.info("Bulk import finished: {} rows, {} imported, {} failed.", report.getTotalRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void addRow(long lineNumber, Callable<UserRequest> parser, List<ImportRow> chunk, BulkImportReport report) {
+        report.rowRead();
+        try {
+            UserRequest request = parser.call();
+            validate(request);
+            chunk.add(new ImportRow(lineNumber, request));
+        } catch (Exception ex) {
+            report.rowFailed(lineNumber, null, "Unparseable row: " + ex.getMessage());
+        }
+        if (chunk.size() >= importChunkSize) {
+            importChunk(chunk, report);
+            chunk.clear();
+        }
+    }
+
+    private void importChunk(List<ImportRow> rows, BulkImportReport report) {
+        Set<String> candidates = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (registeredEmailFilter.mightBeRegisteredUser(row.request().getEmail())) {
+                candidates.add(row.request().getEmail());
+            }
+        }
+        Set<String> existing = candidates.isEmpty() ? Set.of() : userRepository.findExistingEmails(candidates);
+
+        Set<String> seen = new HashSet<>();
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String email = row.request().getEmail();
+            if (existing.contains(email) || !seen.add(email)) {
+                report.rowFailed(row.line(), email, "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<User> users = hashAll(accepted);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                users.forEach(this::persistWithProfile);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.rowsImported(users.size());
+        } catch (RuntimeException ex) {
+            // A concurrent sign-up or a bad row failed the whole batch: retry row by row to pinpoint it.
+            logger.warn("Import chunk failed, retrying {} rows individually: {}", users.size(), ex.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                ImportRow row = accepted.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persistWithProfile(user));
+                    report.rowsImported(1);
+                } catch (RuntimeException rowEx) {
+                    report.rowFailed(row.line(), user.getEmail(), rowEx.getMessage());
+                }
+            }
+        }
+    }
+
+    // Hashes on the import pool rather than the login executor, which would reject a bulk load.
+    private List<User> hashAll(List<ImportRow> rows) {
+        PasswordEncoder hasher = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        List<Future<User>> futures = new ArrayList<>(rows.size());
+        try {
+            for (ImportRow row : rows) {
+                UserRequest request = row.request();
+                futures.add(importHashPool.submit(() -> newUser(request.getUsername(), request.getEmail(),
+                        encodeForImport(hasher, request.getPassword()), request.getRole())));
+            }
+            List<User> users = new ArrayList<>(rows.size());
+            for (Future<User> future : futures) {
+                users.add(future.get());
+            }
+            return users;
+        } catch (RejectedExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceBusyException("Password hashing for the import is saturated, please retry shortly.");
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("User import was interrupted.");
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    private User persistWithProfile(User user) {
+        // User.onCreate assigns the id, so the profile must be built after persist.
+        entityManager.persist(user);
+
+        if (user.getRole() == UserRole.ROLE_OWNER) {
+            VehicleOwnerInfo vehicleOwnerInfo = new VehicleOwnerInfo();
+            vehicleOwnerInfo.setId(user.getId());
+            vehicleOwnerInfo.setEmail(user.getEmail());
+            entityManager.persist(vehicleOwnerInfo);
+        } else if (user.getRole() == UserRole.ROLE_CUSTOMER) {
+            EndCustomer endCustomer = new EndCustomer();
+            endCustomer.setId(user.getId());
+            endCustomer.setEmail(user.getEmail());
+            entityManager.persist(endCustomer);
+        } else if (user.getRole() == UserRole.ROLE_ADMIN) {
+            AdminUser adminUser = new AdminUser();
+            adminUser.setId(user.getId());
+            adminUser.setEmail(user.getEmail());
+            entityManager.persist(adminUser);
+        }
+        return user;
+    }
+
+    private User newUser(String username, String email, String encodedPassword, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword(encodedPassword);
+        user.setRole(role);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private String encodeForImport(PasswordEncoder hasher, String password) {
+        // Migrated accounts may already carry a BCrypt hash; keep it so users keep their password.
+        return BCRYPT_PATTERN.matcher(password).matches() ? password : hasher.encode(password);
+    }
+
+    private void validate(UserRequest request) {
+        if (request.getRole() == null) {
+            throw new IllegalArgumentException("Role is required");
+        }
+        if (request.getUsername() == null || request.getUsername().isBlank()) {
+            throw new IllegalArgumentException("Username cannot be blank");
+        }
+        if (request.getEmail() == null || !EMAIL_PATTERN.matcher(request.getEmail()).matches()) {
+            throw new IllegalArgumentException("Email should be valid");
+        }
+        if (request.getPassword() == null) {
+            throw new IllegalArgumentException("Password is required");
+        }
+    }
+
+    private UserRequest parseCsv(CsvRecord record) {
+        if (record.error() != null) {
+            throw new IllegalArgumentException(record.error());
+        }
+        List<String> columns = record.fields();
+        if (columns.size() != 4) {
+            throw new IllegalArgumentException("Expected 4 columns but found " + columns.size());
+        }
+        UserRequest request = new UserRequest();
+        request.setUsername(columns.get(0).trim());
+        request.setEmail(columns.get(1).trim());
+        // Taken verbatim: leading or trailing spaces are part of the password.
+        request.setPassword(columns.get(2));
+        request.setRole(UserRole.valueOf(columns.get(3).trim()));
+        return request;
+    }
+
+    @Override
+    public void destroy() {
+        importHashPool.shutdownNow();
+    }
+
+    private record ImportRow(long line, UserRequest request) {
+    }
+
+    private record CsvRecord(long line, List<String> fields, String error) {
+
+        boolean isBlank() {
+            return error == null && fields.size() == 1 && fields.get(0).isBlank();
+        }
+    }
+
+    // RFC 4180 records: a quoted field may contain commas, line breaks and quotes doubled as "".
+    // A malformed record is still read to its end so the rows after it parse normally.
+    private static final class CsvReader {
+
+        private final BufferedReader reader;
+        private long line = 1;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private CsvRecord next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            long startLine = line;
+            List<String> fields = new ArrayList<>(4);
+            StringBuilder field = new StringBuilder();
+            String error = null;
+            boolean quoted = false;
+            boolean closed = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        error = "Unterminated quoted field";
+                        break;
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                            closed = true;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    closed = false;
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    break;
+                } else if (closed) {
+                    if (error == null) {
+                        error = "Unexpected character after a closing quote";
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return new CsvRecord(startLine, fields, error);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.cache.BloomFilter;
+import com.trimblecars.leasemanagement.config.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of revoked tokens. The request path only touches the Bloom filter, which answers
+ * "definitely not revoked" for almost every token; the exact set is consulted on a filter hit.
+ * Entries leave the exact set only once the token's exp has passed, never to make room: dropping a
+ * live entry would quietly un-revoke a token that still authenticates. The set grows past the
+ * expected size instead, and the filter is re-sized with it. The filter is also rebuilt
+ * periodically from the live entries so stale bits do not accumulate.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final JwtUtil jwtUtil;
+    // Token digest to the token's exp in epoch millis.
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+    private long filterCapacity;
+
+    public TokenRevocationService(JwtUtil jwtUtil,
+                                  @Value("${security.revocation.expected-tokens:100000}") int expectedRevocations,
+                                  @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        Gauge.builder("auth.token.revoked", revoked, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public synchronized void revoke(String token) {
+        Claims claims = jwtUtil.extractClaims(token);
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new IllegalArgumentException("Token has no expiry and cannot be revoked.");
+        }
+        long expiresAt = expiration.getTime();
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        String digest = JwtUtil.digest(token);
+        revoked.put(digest, expiresAt);
+        if (revoked.size() > filterCapacity) {
+            rebuildFilter();
+        } else {
+            filter.put(digest);
+        }
+    }
+
+    public boolean isRevoked(String token) {
+        String digest = JwtUtil.digest(token);
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(digest);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuildFilter() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        // Doubling leaves room for further revocations before the next re-size.
+        long capacity = Math.max(expectedRevocations, revoked.size() * 2L);
+        if (capacity > expectedRevocations && capacity != filterCapacity) {
+            logger.warn("{} live revoked tokens exceed the expected {}; growing the revocation filter.",
+                    revoked.size(), expectedRevocations);
+        }
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filterCapacity = capacity;
+        filter = rebuilt;
+    }
+}
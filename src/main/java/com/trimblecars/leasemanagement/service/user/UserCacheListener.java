@@ -0,0 +1,51 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.model.auth.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class UserCacheListener {
+
+    private final PrincipalCache principalCache;
+    private final UserRevocationCheck revocationCheck;
+    private final RegisteredEmailFilter registeredEmailFilter;
+
+    // Lazy: these collaborators depend on repositories, which in turn need the EntityManagerFactory
+    // that instantiates this listener.
+    public UserCacheListener(PrincipalCache principalCache, @Lazy UserRevocationCheck revocationCheck,
+                             @Lazy RegisteredEmailFilter registeredEmailFilter) {
+        this.principalCache = principalCache;
+        this.revocationCheck = revocationCheck;
+        this.registeredEmailFilter = registeredEmailFilter;
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        revocationCheck.markRemoved(user.getEmail());
+        onUserChanged(user);
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onUserChanged(User user) {
+        String email = user.getEmail();
+        registeredEmailFilter.addUser(email);
+        principalCache.invalidate(email);
+
+        // A concurrent reader may re-cache the old row before commit, so evict once more afterwards.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.cache.ExpiringCache;
+import com.trimblecars.leasemanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserRevocationCheck {
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, Boolean> activeUsers;
+    private final long ttlMillis;
+
+    public UserRevocationCheck(UserRepository userRepository,
+                               @Value("${security.revocation-check.size:50000}") int size,
+                               @Value("${security.revocation-check.ttl-seconds:30}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.activeUsers = new ExpiringCache<>(size);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    public boolean isRevoked(String email) {
+        Boolean active = activeUsers.get(email);
+        if (active == null) {
+            active = userRepository.existsByEmail(email);
+            activeUsers.put(email, active, System.currentTimeMillis() + ttlMillis);
+        }
+        return !active;
+    }
+
+    public void markRemoved(String email) {
+        if (email != null) {
+            activeUsers.put(email, false, System.currentTimeMillis() + ttlMillis);
+        }
+    }
+}
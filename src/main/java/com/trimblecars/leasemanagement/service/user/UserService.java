@@ -3,17 +3,21 @@ package com.trimblecars.leasemanagement.service.user;
 
 import com.trimblecars.leasemanagement.model.auth.User;
 import com.trimblecars.leasemanagement.repository.UserRepository;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class UserService  {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
 
@@ -24,7 +28,27 @@ public class UserService  {
 
 
     public User findByEmail(String email)  {
-        return userRepository.findByEmail(email)
+        User cached = principalCache.get(email);
+        if (cached != null) {
+            return cached;
+        }
+        User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + email));
+        principalCache.put(user);
+        return user;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String email) {
+        return findByEmail(email);
+    }
+
+    // Called by the authentication manager after a successful login when the stored hash
+    // was produced with a lower BCrypt cost than the one currently configured.
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        user.setPassword(newPassword);
+        return userRepository.save(user);
     }
 }
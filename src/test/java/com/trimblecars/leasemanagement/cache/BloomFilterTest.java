@@ -0,0 +1,38 @@
+package com.trimblecars.leasemanagement.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverReturnFalseForInsertedValues() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void mightContain_shouldStayNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // 1% configured; allow generous headroom so the test is not flaky.
+        assertTrue(falsePositives < 3_000, "False positives: " + falsePositives);
+    }
+}
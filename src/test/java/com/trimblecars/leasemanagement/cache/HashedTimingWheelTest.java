@@ -0,0 +1,65 @@
+package com.trimblecars.leasemanagement.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void advance_shouldExpireOnlyDueTimeouts() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 1_000);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(200, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(300, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.pending());
+    }
+
+    @Test
+    void advance_shouldHandleTimeoutsBeyondOneRotation() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 4, 0);
+        wheel.schedule("far", 1_050);
+        List<String> expired = new ArrayList<>();
+
+        for (long now = 100; now <= 1_000; now += 100) {
+            wheel.advance(now, expired::add);
+        }
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(1_100, expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void advance_shouldSkipCancelledTimeouts() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 100).cancel();
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(10_000, expired::add);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void schedule_shouldNeverLandInAnAlreadyProcessedTick() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.advance(500, item -> { });
+        wheel.schedule("late", 100);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(600, expired::add);
+
+        assertEquals(List.of("late"), expired);
+    }
+}
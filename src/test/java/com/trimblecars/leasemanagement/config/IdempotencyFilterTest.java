@@ -0,0 +1,115 @@
+package com.trimblecars.leasemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.repository.idempotency.IdempotentResponseRepository;
+import com.trimblecars.leasemanagement.service.idempotency.IdempotencyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/customers/lease/start";
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotentResponseRepository repository = mock(IdempotentResponseRepository.class);
+        when(repository.findLive(anyString(), any())).thenReturn(Optional.empty());
+        IdempotencyService idempotencyService = new IdempotencyService(repository,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 100, 60);
+        filter = new IdempotencyFilter(idempotencyService, new ObjectMapper(), List.of(PATH), 1000);
+    }
+
+    @Test
+    void retry_shouldReplayEvenWhenTheHandlerReadPartOfTheBody() throws Exception {
+        // Reads only the first byte, as a handler that fails fast on a bad prefix would.
+        FilterChain partialReader = (request, response) -> {
+            request.getInputStream().read();
+            executions.incrementAndGet();
+            response.getWriter().write("{\"success\":true}");
+        };
+
+        MockHttpServletResponse first = send("{\"vehicleId\":\"v1\"}", partialReader);
+        MockHttpServletResponse retry = send("{\"vehicleId\":\"v1\"}", partialReader);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void retry_shouldRejectADifferentBodyUnderTheSameKey() throws Exception {
+        FilterChain handler = (request, response) -> {
+            assertEquals("{\"vehicleId\":\"v1\"}", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            executions.incrementAndGet();
+        };
+
+        send("{\"vehicleId\":\"v1\"}", handler);
+        MockHttpServletResponse retry = send("{\"vehicleId\":\"v2\"}", handler);
+
+        assertEquals(422, retry.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void cachedBody_shouldSupportAsynchronousReads() throws Exception {
+        StringBuilder read = new StringBuilder();
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    read.append(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    executions.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+        };
+
+        send("{\"vehicleId\":\"v1\"}", asyncReader);
+
+        assertEquals("{\"vehicleId\":\"v1\"}", read.toString());
+        assertEquals(1, executions.get());
+    }
+
+    private MockHttpServletResponse send(String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.addHeader(IdempotencyFilter.KEY_HEADER, "key-1");
+        request.addHeader("Authorization", "Bearer token");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,62 @@
+package com.trimblecars.leasemanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.service.user.LoginThrottle;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleFilterTest {
+
+    private final LoginThrottle loginThrottle = mock(LoginThrottle.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final LoginThrottleFilter filter = new LoginThrottleFilter(loginThrottle, new ObjectMapper());
+
+    @Test
+    void shouldRejectThrottledLoginWithRetryAfter() throws Exception {
+        MockHttpServletRequest request = login("user@example.com");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(loginThrottle.tryAcquire("user@example.com", "127.0.0.1")).thenReturn(1500L);
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Too many login attempts"));
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void shouldPassAllowedLoginThrough() throws Exception {
+        MockHttpServletRequest request = login("user@example.com");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(loginThrottle.tryAcquire("user@example.com", "127.0.0.1")).thenReturn(0L);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void shouldIgnoreOtherRequests() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyNoInteractions(loginThrottle);
+    }
+
+    private static MockHttpServletRequest login(String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setParameter("email", email);
+        request.setRemoteAddr("127.0.0.1");
+        return request;
+    }
+}
@@ -5,13 +5,14 @@ import com.trimblecars.leasemanagement.controller.AuthController;
 import com.trimblecars.leasemanagement.dto.ApiResponse;
 import com.trimblecars.leasemanagement.dto.LoginResponse;
 import com.trimblecars.leasemanagement.dto.UserRequest;
+import com.trimblecars.leasemanagement.exception.ResourceAlreadyExistsException;
 import com.trimblecars.leasemanagement.model.auth.User;
 import com.trimblecars.leasemanagement.model.auth.UserRole;
-import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
 import com.trimblecars.leasemanagement.repository.UserRepository;
 import com.trimblecars.leasemanagement.service.customer.EndCustomerService;
 import com.trimblecars.leasemanagement.service.owner.VehicleOwnerService;
 import com.trimblecars.leasemanagement.service.user.GoogleOAuth2Service;
+import com.trimblecars.leasemanagement.service.user.RegistrationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -49,6 +50,9 @@ class AuthControllerTest {
     @Mock
     private EndCustomerService customerService;
 
+    @Mock
+    private RegistrationService registrationService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -75,10 +79,8 @@ class AuthControllerTest {
         user.setRole(userRequest.getRole());
         user.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.existsByEmail(userRequest.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(userRequest.getPassword())).thenReturn("hashedPassword");
+        when(registrationService.register(userRequest)).thenReturn(user);
         when(jwtUtil.generateToken(anyString(), anyString(),anyString())).thenReturn("mockJwtToken");
-        when(userRepository.save(any(User.class))).thenReturn(user);
 
         // When
         ResponseEntity<ApiResponse<LoginResponse>> response = authController.register(userRequest);
@@ -88,7 +90,7 @@ class AuthControllerTest {
         assertTrue(response.getBody().isSuccess());
         assertEquals("test@example.com", response.getBody().getData().getEmail());
         assertNotNull(response.getBody().getData().getToken());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(registrationService, times(1)).register(userRequest);
     }
 
     @Test
@@ -100,7 +102,7 @@ class AuthControllerTest {
         userRequest.setPassword("password123");
         userRequest.setRole(UserRole.ROLE_CUSTOMER);
 
-        when(userRepository.existsByEmail(userRequest.getEmail())).thenReturn(true);
+        when(registrationService.register(userRequest)).thenThrow(new ResourceAlreadyExistsException("Email already exists"));
 
         ResponseEntity<ApiResponse<LoginResponse>> response = authController.register(userRequest);
 
@@ -157,7 +159,7 @@ class AuthControllerTest {
 
 
     @Test
-    void registerVehicleOwner_shouldCallVehicleOwnerService() {
+    void registerVehicleOwner_shouldDelegateToRegistrationService() {
         // Given
         UserRequest userRequest = new UserRequest();
         userRequest.setUsername("ownerUser");
@@ -173,10 +175,8 @@ class AuthControllerTest {
         user.setRole(userRequest.getRole());
         user.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.existsByEmail(userRequest.getEmail())).thenReturn(false);
-        when(passwordEncoder.encode(userRequest.getPassword())).thenReturn("hashedPassword");
+        when(registrationService.register(userRequest)).thenReturn(user);
         when(jwtUtil.generateToken(anyString(), anyString(),anyString())).thenReturn("mockJwtToken");
-        when(userRepository.save(any(User.class))).thenReturn(user);
 
         // When
         ResponseEntity<ApiResponse<LoginResponse>> response = authController.register(userRequest);
@@ -184,6 +184,7 @@ class AuthControllerTest {
         // Then
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().isSuccess());
-        verify(vehicleOwnerService, times(1)).registerOwner(any(VehicleOwnerInfo.class));
+        verify(registrationService, times(1)).register(userRequest);
+        verify(jwtUtil, times(1)).generateToken("ownerId", "owner@example.com", UserRole.ROLE_OWNER.name());
     }
 }
\ No newline at end of file
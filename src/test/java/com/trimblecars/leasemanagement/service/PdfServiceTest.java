@@ -0,0 +1,85 @@
+package com.trimblecars.leasemanagement.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfServiceTest {
+
+    private static final int LEASES = PdfService.FLUSH_ROWS * 4;
+
+    private final PdfService pdfService = new PdfService();
+
+    @Test
+    void writeLeaseHistoryPdf_shouldStreamPagesBeforeTheLastLeaseIsRead() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicInteger flushes = new AtomicInteger();
+        AtomicInteger bytesBeforeLastLease = new AtomicInteger(-1);
+        Iterator<LeaseHistory> source = IntStream.range(0, LEASES).mapToObj(PdfServiceTest::lease).iterator();
+        Iterator<LeaseHistory> leases = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public LeaseHistory next() {
+                if (++read == LEASES) {
+                    bytesBeforeLastLease.set(out.size());
+                }
+                return source.next();
+            }
+        };
+
+        pdfService.writeLeaseHistoryPdf(leases, out, flushes::incrementAndGet);
+
+        byte[] pdf = out.toByteArray();
+        assertEquals("%PDF-", new String(pdf, 0, 5, StandardCharsets.US_ASCII));
+        assertEquals(LEASES / PdfService.FLUSH_ROWS, flushes.get());
+        assertTrue(bytesBeforeLastLease.get() > 0, "pages should be written while leases are still being read");
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        assertTrue(document.getNumberOfPages() > 1);
+        document.close();
+    }
+
+    @Test
+    void writeLeaseHistoryPdf_shouldRenderAnEmptyReport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        pdfService.writeLeaseHistoryPdf(Collections.emptyIterator(), out, () -> fail("nothing to flush"));
+
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(1, document.getNumberOfPages());
+        document.close();
+    }
+
+    private static LeaseHistory lease(int i) {
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setVehicleName(i % 7 == 0 ? null : "Car " + i);
+        LeaseHistory lease = new LeaseHistory();
+        lease.setCustomer(new EndCustomer());
+        lease.setVehicle(vehicle);
+        lease.setLeaseStartDate(LocalDateTime.of(2025, 1, 1, 9, 0).plusHours(i));
+        // Every other lease is still active and has no end date.
+        if (i % 2 == 0) {
+            lease.setLeaseEndDate(lease.getLeaseStartDate().plusDays(3));
+        }
+        return lease;
+    }
+}
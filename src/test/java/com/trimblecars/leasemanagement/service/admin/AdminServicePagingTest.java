@@ -0,0 +1,56 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.dto.CursorPage;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AdminServicePagingTest {
+
+    @Autowired
+    private AdminService adminService;
+    @Autowired
+    private EndCustomerRepository customerRepository;
+
+    @Test
+    void getCustomers_shouldWalkAllPagesWithoutDuplicates() {
+        String city = "city-" + UUID.randomUUID();
+        for (int i = 0; i < 7; i++) {
+            EndCustomer customer = new EndCustomer();
+            customer.setEmail(UUID.randomUUID() + "@paging.test");
+            customer.setCity(city);
+            customer.setVerified(i % 2 == 0);
+            customerRepository.save(customer);
+        }
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<EndCustomer> page = adminService.getCustomers(null, city, null, cursor, 3);
+            page.getItems().forEach(customer -> assertTrue(seen.add(customer.getId())));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(7, seen.size());
+        assertEquals(3, pages);
+        assertEquals(4, adminService.getCustomers(null, city, true, null, 50).getItems().size());
+    }
+
+    @Test
+    void getCustomers_shouldRejectBadPageRequests() {
+        assertThrows(IllegalArgumentException.class, () -> adminService.getCustomers(null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> adminService.getCustomers(null, null, null, "not a cursor!", 10));
+        assertEquals(AdminService.MAX_PAGE_SIZE, adminService.getCustomers(null, null, null, null, 10_000).getSize());
+    }
+}
@@ -0,0 +1,159 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a million leases from the database through the same repository stream the export endpoint uses.
+ * Run with {@code ./gradlew largeTest}, which caps the heap at 128 MB: enough for the application context, far
+ * less than a million materialised leases need, so the export only passes if rows are not retained. The
+ * database lives in a file, since an in-memory one would hold every seeded row on the same heap.
+ */
+@Tag("large")
+@SpringBootTest
+class DataExportLargeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportLargeTest.class);
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private DataExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EndCustomerRepository customerRepository;
+    @Autowired
+    private VehicleOwnerRepository ownerRepository;
+    @Autowired
+    private VehicleRentalInfoRepository vehicleRepository;
+
+    @DynamicPropertySource
+    static void fileDatabase(DynamicPropertyRegistry registry) {
+        Path dir = createTempDirectory();
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:file:" + dir.resolve("export").toAbsolutePath() + ";CACHE_SIZE=8192");
+        // One select per export; logging each seeded statement would dominate the run.
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.hibernate.SQL", () -> "INFO");
+    }
+
+    @Test
+    void export_shouldStreamMillionLeasesInFlatMemory() throws Exception {
+        seedLeases();
+
+        for (ExportFormat format : ExportFormat.values()) {
+            LineCountingStream out = new LineCountingStream();
+            long startNanos = System.nanoTime();
+
+            exportService.export("leases", format).writeTo(out);
+
+            Runtime runtime = Runtime.getRuntime();
+            logger.info("{}: {} lines, {} MB written in {} ms; heap max {} MB, used {} MB.", format, out.lines,
+                    out.bytes >> 20, (System.nanoTime() - startNanos) / 1_000_000,
+                    runtime.maxMemory() >> 20, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+            assertEquals(format == ExportFormat.CSV ? ROWS + 1 : ROWS, out.lines);
+        }
+    }
+
+    // Plain JDBC batches: going through the entity manager would make the seeding itself the memory problem.
+    private void seedLeases() {
+        VehicleOwnerInfo owner = new VehicleOwnerInfo();
+        owner.setEmail(UUID.randomUUID() + "@owner.test");
+        ownerRepository.save(owner);
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setVehicleName("Export car");
+        vehicle.setRegistrationNumber(UUID.randomUUID().toString().substring(0, 20));
+        vehicle.setVehicleYear(2024);
+        vehicle.setType("export");
+        vehicle.setSeatingCapacity(5);
+        vehicle.setDailyRentalPrice(40);
+        vehicle.setOwner(owner);
+        String vehicleId = vehicleRepository.save(vehicle).getId();
+        EndCustomer customer = new EndCustomer();
+        customer.setEmail(UUID.randomUUID() + "@export.test");
+        String customerId = customerRepository.save(customer).getId();
+
+        Timestamp start = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 9, 0));
+        Timestamp end = Timestamp.valueOf(LocalDateTime.of(2024, 1, 8, 9, 0));
+        long startNanos = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < ROWS; i++) {
+            // Closed, activated leases, so no scheduled job picks them up while the test runs.
+            batch.add(new Object[]{"lease-" + i, customerId, vehicleId, start, end, end, true, 280.0, end});
+            if (batch.size() == INSERT_BATCH) {
+                insertLeases(batch);
+                batch.clear();
+            }
+        }
+        insertLeases(batch);
+        logger.info("Seeded {} leases in {} ms.", ROWS, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private void insertLeases(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into lease_history (lease_history_id, customer_id, vehicle_id, " +
+                    "lease_start_date, lease_end_date, scheduled_end_date, activated, total_cost, last_modified) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("leasemanagement-large-export");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static final class LineCountingStream extends OutputStream {
+
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.service.PdfService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataExportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DataExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new DataExportService(null, null, null, new PdfService(), objectMapper, transactionManager);
+        ReflectionTestUtils.setField(exportService, "entityManager", entityManager);
+    }
+
+    @Test
+    void writeRows_shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.writeRows(Stream.of(lease("l1"), lease("l2")),
+                DataExportService.LEASE_COLUMNS, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals("l1", first.get("id").asText());
+        assertEquals("2025-01-02T10:00:00", first.get("leaseStartDate").asText());
+        assertTrue(first.get("leaseEndDate").isNull());
+    }
+
+    @Test
+    void writeRows_shouldQuoteCsvFieldsThatNeedIt() throws Exception {
+        EndCustomer customer = new EndCustomer();
+        customer.setId("c1");
+        customer.setEmail("a@b.test");
+        customer.setCity("Pune, \"West\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.writeRows(Stream.of(customer), DataExportService.CUSTOMER_COLUMNS, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("id,email,phoneNumber,city,state,country,verified,activeLeases", lines[0]);
+        assertEquals("c1,a@b.test,,\"Pune, \"\"West\"\"\",,,false,0", lines[1]);
+    }
+
+    @Test
+    void writeRows_shouldClearPersistenceContextPeriodically() throws Exception {
+        Stream<LeaseHistory> rows = IntStream.range(0, DataExportService.CLEAR_INTERVAL * 3 + 1)
+                .mapToObj(i -> lease("l" + i));
+
+        exportService.writeRows(rows, DataExportService.LEASE_COLUMNS, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        verify(entityManager, times(3)).clear();
+    }
+
+    static LeaseHistory lease(String id) {
+        EndCustomer customer = new EndCustomer();
+        customer.setEmail(id + "@customer.test");
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setRegistrationNumber("REG-" + id);
+        LeaseHistory lease = new LeaseHistory();
+        lease.setId(id);
+        lease.setCustomer(customer);
+        lease.setVehicle(vehicle);
+        lease.setLeaseStartDate(LocalDateTime.of(2025, 1, 2, 10, 0));
+        lease.setActivated(true);
+        return lease;
+    }
+}
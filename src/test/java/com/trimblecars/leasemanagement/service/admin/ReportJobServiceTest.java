@@ -0,0 +1,142 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.exception.ResourceNotFoundException;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository.DataVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    private static final LeaseReportFilter ALL = new LeaseReportFilter(null, null, null, null, null);
+
+    @Mock
+    private DataExportService exportService;
+
+    @Mock
+    private LeaseHistoryRepository leaseHistoryRepository;
+
+    @TempDir
+    Path cacheDir;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("report".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).writeLeaseReport(any(), any(), any());
+        reportJobService = new ReportJobService(exportService, leaseHistoryRepository, cacheDir.toString(), 1, 4, 3600);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.destroy();
+    }
+
+    @Test
+    void submit_shouldServeUnchangedDataFromDisk() throws Exception {
+        when(leaseHistoryRepository.findDataVersion()).thenReturn(version(10, LocalDateTime.of(2025, 3, 1, 12, 0)));
+
+        ReportJob first = awaitDone(reportJobService.submit(ALL, ReportFormat.CSV));
+        ReportJob second = reportJobService.submit(ALL, ReportFormat.CSV);
+
+        assertFalse(first.isCached());
+        assertEquals(ReportJob.Status.DONE, second.getStatus());
+        assertTrue(second.isCached());
+        assertEquals(first.getFile(), second.getFile());
+        verify(exportService, times(1)).writeLeaseReport(any(), any(), any());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportJobService.transferTo(second.getFile(), out);
+        assertEquals("report", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void submit_shouldRegenerateWhenLeasesChange() throws Exception {
+        when(leaseHistoryRepository.findDataVersion())
+                .thenReturn(version(10, LocalDateTime.of(2025, 3, 1, 12, 0)))
+                .thenReturn(version(10, LocalDateTime.of(2025, 3, 1, 12, 5)));
+
+        ReportJob before = awaitDone(reportJobService.submit(ALL, ReportFormat.PDF));
+        ReportJob after = awaitDone(reportJobService.submit(ALL, ReportFormat.PDF));
+
+        assertFalse(after.isCached());
+        assertNotEquals(before.getFile(), after.getFile());
+        verify(exportService, times(2)).writeLeaseReport(any(), any(), any());
+    }
+
+    @Test
+    void submit_shouldShareAJobForIdenticalPendingReports() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 0L;
+        }).when(exportService).writeLeaseReport(any(), any(), any());
+        when(leaseHistoryRepository.findDataVersion()).thenReturn(version(0, null));
+
+        ReportJob first = reportJobService.submit(ALL, ReportFormat.PDF);
+        ReportJob second = reportJobService.submit(ALL, ReportFormat.PDF);
+        release.countDown();
+
+        assertSame(first, second);
+        assertTrue(Files.exists(awaitDone(first).getFile()));
+    }
+
+    @Test
+    void purgeExpired_shouldDropJobsWhoseFileWasDeleted() throws Exception {
+        when(leaseHistoryRepository.findDataVersion()).thenReturn(version(1, LocalDateTime.of(2025, 3, 1, 12, 0)));
+        ReportJob job = awaitDone(reportJobService.submit(ALL, ReportFormat.CSV));
+        Files.setLastModifiedTime(job.getFile(), FileTime.fromMillis(System.currentTimeMillis() - 7_200_000));
+
+        reportJobService.purgeExpired();
+
+        assertFalse(Files.exists(job.getFile()));
+        assertThrows(ResourceNotFoundException.class, () -> reportJobService.getJob(job.getId()));
+    }
+
+    private static ReportJob awaitDone(ReportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (job.getStatus() != ReportJob.Status.DONE && System.currentTimeMillis() < deadline) {
+            assertNotEquals(ReportJob.Status.FAILED, job.getStatus(), job.getError());
+            Thread.sleep(10);
+        }
+        assertEquals(ReportJob.Status.DONE, job.getStatus());
+        return job;
+    }
+
+    private static DataVersion version(long leases, LocalDateTime lastModified) {
+        return new DataVersion() {
+            @Override
+            public long getLeases() {
+                return leases;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.trimblecars.leasemanagement.service.admin;
+
+import com.trimblecars.leasemanagement.dto.StatementBatchReport;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import com.trimblecars.leasemanagement.service.PdfService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StatementBatchServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+
+    @Autowired
+    private EndCustomerRepository customerRepository;
+    @Autowired
+    private LeaseHistoryRepository leaseHistoryRepository;
+    @Autowired
+    private VehicleOwnerRepository ownerRepository;
+    @Autowired
+    private VehicleRentalInfoRepository vehicleRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void generate_shouldResumeAfterTheLastCompletedChunk() throws Exception {
+        List<String> customerIds = createCustomersWithLeases(10);
+        AtomicInteger rendered = new AtomicInteger();
+        PdfService crashing = new PdfService() {
+            @Override
+            public void writeStatementPdf(EndCustomer customer, YearMonth month, List<LeaseHistory> leases,
+                                          OutputStream out) {
+                if (rendered.incrementAndGet() == 7) {
+                    throw new IllegalStateException("Renderer crashed");
+                }
+                super.writeStatementPdf(customer, month, leases, out);
+            }
+        };
+
+        StatementBatchService interrupted = service(crashing);
+        assertThrows(IllegalStateException.class, () -> interrupted.generate(MONTH));
+        assertEquals(StatementBatchReport.Status.FAILED, interrupted.getLastReport().getStatus());
+        interrupted.destroy();
+        StatementBatchService.Checkpoint checkpoint = StatementBatchService.loadCheckpoint(
+                outputDir.resolve("statements-" + MONTH).resolve(StatementBatchService.CHECKPOINT_FILE));
+        // One render thread keeps two chunks in flight: the first two finished, the third failed.
+        assertEquals(2, checkpoint.chunks());
+
+        StatementBatchService resumed = service(new PdfService());
+        StatementBatchReport report = resumed.generate(MONTH);
+        resumed.destroy();
+
+        assertEquals(StatementBatchReport.Status.DONE, report.getStatus());
+        assertEquals(2, report.getResumedFromChunk());
+        assertEquals(customerRepository.count(), report.getStatements());
+        Set<String> entries = zipEntries(Path.of(report.getFile()));
+        assertEquals(report.getStatements(), entries.size());
+        customerIds.forEach(id -> assertTrue(entries.contains(id + ".pdf")));
+    }
+
+    @Test
+    void generate_shouldRegenerateWhenTheCompletedZipIsMissing() throws Exception {
+        List<String> customerIds = createCustomersWithLeases(4);
+        StatementBatchService first = service(new PdfService());
+        StatementBatchReport generated = first.generate(MONTH);
+        first.destroy();
+        Files.delete(Path.of(generated.getFile()));
+
+        StatementBatchService second = service(new PdfService());
+        StatementBatchReport report = second.generate(MONTH);
+        second.destroy();
+
+        assertEquals(StatementBatchReport.Status.DONE, report.getStatus());
+        assertEquals(0, report.getResumedFromChunk());
+        assertEquals(customerRepository.count(), report.getStatements());
+        Set<String> entries = zipEntries(Path.of(report.getFile()));
+        assertEquals(report.getStatements(), entries.size());
+        customerIds.forEach(id -> assertTrue(entries.contains(id + ".pdf")));
+        StatementBatchService.Checkpoint checkpoint = StatementBatchService.loadCheckpoint(
+                outputDir.resolve("statements-" + MONTH).resolve(StatementBatchService.CHECKPOINT_FILE));
+        assertTrue(checkpoint.complete());
+        assertEquals(report.getStatements(), checkpoint.statements());
+    }
+
+    private StatementBatchService service(PdfService pdfService) {
+        return new StatementBatchService(customerRepository, leaseHistoryRepository, pdfService, transactionManager,
+                outputDir.toString(), 3, 1);
+    }
+
+    private static Set<String> zipEntries(Path zip) throws Exception {
+        Set<String> names = new HashSet<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                assertTrue(names.add(entry.getName()), "duplicate statement " + entry.getName());
+                assertTrue(in.readAllBytes().length > 0);
+            }
+        }
+        return names;
+    }
+
+    private List<String> createCustomersWithLeases(int count) {
+        VehicleOwnerInfo owner = new VehicleOwnerInfo();
+        owner.setEmail(UUID.randomUUID() + "@owner.test");
+        ownerRepository.save(owner);
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setVehicleName("Statement car");
+        vehicle.setRegistrationNumber(UUID.randomUUID().toString().substring(0, 20));
+        vehicle.setVehicleYear(2024);
+        vehicle.setType("statement");
+        vehicle.setSeatingCapacity(5);
+        vehicle.setDailyRentalPrice(40);
+        vehicle.setOwner(owner);
+        vehicleRepository.save(vehicle);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EndCustomer customer = new EndCustomer();
+            customer.setEmail(UUID.randomUUID() + "@statement.test");
+            ids.add(customerRepository.save(customer).getId());
+            if (i % 3 == 0) {
+                LeaseHistory lease = new LeaseHistory();
+                lease.setCustomer(customer);
+                lease.setVehicle(vehicle);
+                lease.setLeaseStartDate(LocalDateTime.of(2025, 2, 20, 9, 0));
+                lease.setLeaseEndDate(LocalDateTime.of(2025, 3, 4, 9, 0));
+                lease.setTotalCost(480);
+                leaseHistoryRepository.save(lease);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,87 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.customer.LeaseHistory;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AutoAssignLeaseIntegrationTest {
+
+    private static final int CUSTOMERS = 16;
+
+    @Autowired
+    private EndCustomerService customerService;
+    @Autowired
+    private EndCustomerRepository customerRepository;
+    @Autowired
+    private VehicleOwnerRepository ownerRepository;
+    @Autowired
+    private VehicleRentalInfoRepository vehicleRepository;
+
+    @Test
+    void startLeaseForAny_shouldGiveConcurrentCustomersDistinctVehicles() throws Exception {
+        String type = "auto-" + UUID.randomUUID();
+        VehicleOwnerInfo owner = new VehicleOwnerInfo();
+        owner.setEmail(UUID.randomUUID() + "@owner.test");
+        ownerRepository.save(owner);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            VehicleRentalInfo vehicle = new VehicleRentalInfo();
+            vehicle.setVehicleName("Car " + i);
+            vehicle.setRegistrationNumber(UUID.randomUUID().toString().substring(0, 20));
+            vehicle.setVehicleYear(2024);
+            vehicle.setType(type);
+            vehicle.setSeatingCapacity(5);
+            vehicle.setDailyRentalPrice(40 + i);
+            vehicle.setOwner(owner);
+            vehicleRepository.save(vehicle);
+        }
+        List<String> customerIds = new ArrayList<>();
+        for (int i = 0; i <= CUSTOMERS; i++) {
+            EndCustomer customer = new EndCustomer();
+            customer.setEmail(UUID.randomUUID() + "@customer.test");
+            customerIds.add(customerRepository.save(customer).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(CUSTOMERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LeaseHistory>> leases = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customerId = customerIds.get(i);
+            leases.add(pool.submit(() -> {
+                start.await();
+                return customerService.startLeaseForAny(customerId, type, 4, 100.0, null);
+            }));
+        }
+        start.countDown();
+
+        Set<String> vehicleIds = new HashSet<>();
+        for (Future<LeaseHistory> lease : leases) {
+            vehicleIds.add(lease.get().getVehicle().getId());
+        }
+        pool.shutdown();
+
+        assertEquals(CUSTOMERS, vehicleIds.size());
+        assertThrows(LeaseConflictException.class,
+                () -> customerService.startLeaseForAny(customerIds.get(CUSTOMERS), type, 4, 100.0, null));
+    }
+}
@@ -0,0 +1,76 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.repository.customer.LeaseHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookingCalendarTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private BookingCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        LeaseHistoryRepository repository = mock(LeaseHistoryRepository.class);
+        when(repository.streamCurrentAndFuture(any())).thenReturn(Stream.empty());
+        calendar = new BookingCalendar(repository);
+        calendar.warm();
+    }
+
+    @Test
+    void tryReserve_shouldRejectOverlappingBooking() {
+        assertTrue(calendar.tryReserve("v1", "l1", T0, T0.plusDays(2)));
+
+        assertFalse(calendar.tryReserve("v1", "l2", T0.plusDays(1), T0.plusDays(3)));
+        assertFalse(calendar.tryReserve("v1", "l3", T0.minusDays(1), T0.plusHours(1)));
+        assertFalse(calendar.isFree("v1", T0.plusHours(1), T0.plusHours(2)));
+    }
+
+    @Test
+    void tryReserve_shouldAllowAdjacentBookingsAndOtherVehicles() {
+        assertTrue(calendar.tryReserve("v1", "l1", T0, T0.plusDays(2)));
+
+        assertTrue(calendar.tryReserve("v1", "l2", T0.plusDays(2), T0.plusDays(3)));
+        assertTrue(calendar.tryReserve("v1", "l3", T0.minusDays(1), T0));
+        assertTrue(calendar.tryReserve("v2", "l4", T0, T0.plusDays(2)));
+    }
+
+    @Test
+    void bookedBetween_shouldListOnlyVehiclesWithOverlappingBookings() {
+        assertTrue(calendar.tryReserve("v1", "l1", T0, T0.plusDays(2)));
+        assertTrue(calendar.tryReserve("v2", "l2", T0.plusDays(2), T0.plusDays(3)));
+        assertTrue(calendar.tryReserve("v3", "l3", T0.minusDays(3), T0.minusDays(1)));
+
+        assertEquals(Set.of("v1"), calendar.bookedBetween(T0.plusDays(1), T0.plusDays(2)));
+        assertEquals(Set.of("v1", "v2"), calendar.bookedBetween(T0.plusDays(1), T0.plusDays(2).plusHours(1)));
+    }
+
+    @Test
+    void closeAfterCommit_shouldFreeRemainderOfLease() {
+        assertTrue(calendar.tryReserve("v1", "l1", T0, BookingCalendar.OPEN_END));
+        assertFalse(calendar.isFree("v1", T0.plusDays(10), T0.plusDays(11)));
+
+        calendar.closeAfterCommit("v1", "l1", T0, T0.plusDays(1));
+
+        assertTrue(calendar.isFree("v1", T0.plusDays(10), T0.plusDays(11)));
+        assertFalse(calendar.isFree("v1", T0, T0.plusHours(1)));
+    }
+
+    @Test
+    void closeAfterCommit_shouldRemoveCancelledBooking() {
+        assertTrue(calendar.tryReserve("v1", "l1", T0, T0.plusDays(1)));
+
+        calendar.closeAfterCommit("v1", "l1", T0, T0.minusDays(1));
+
+        assertTrue(calendar.isFree("v1", T0, T0.plusDays(1)));
+    }
+}
@@ -0,0 +1,194 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.dto.BulkLeaseReport;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest.Action;
+import com.trimblecars.leasemanagement.dto.BulkLeaseRequest.Operation;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.customer.EndCustomerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleOwnerRepository;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares starting N leases one call at a time with a single batch of N. Timings are logged rather than
+ * asserted, since they depend on the machine.
+ */
+@SpringBootTest
+class BulkLeaseBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLeaseBenchmarkTest.class);
+
+    private static final int LEASES = 100;
+
+    @Autowired
+    private EndCustomerService customerService;
+    @Autowired
+    private BulkLeaseService bulkLeaseService;
+    @Autowired
+    private EndCustomerRepository customerRepository;
+    @Autowired
+    private VehicleOwnerRepository ownerRepository;
+    @Autowired
+    private VehicleRentalInfoRepository vehicleRepository;
+    @Autowired
+    private LeaseHoldService leaseHoldService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void batch_shouldStartAndEndLeasesLikeSequentialCalls() {
+        List<String> sequentialCustomers = createCustomers(LEASES);
+        List<String> sequentialVehicles = createVehicles(LEASES);
+        List<String> batchCustomers = createCustomers(LEASES);
+        List<String> batchVehicles = createVehicles(LEASES);
+
+        long sequentialStart = System.nanoTime();
+        for (int i = 0; i < LEASES; i++) {
+            customerService.startLease(sequentialCustomers.get(i), sequentialVehicles.get(i), null);
+        }
+        long sequentialNanos = System.nanoTime() - sequentialStart;
+
+        List<Operation> starts = new ArrayList<>();
+        for (int i = 0; i < LEASES; i++) {
+            starts.add(operation(Action.START, batchCustomers.get(i), batchVehicles.get(i), null));
+        }
+        long batchStart = System.nanoTime();
+        BulkLeaseReport started = bulkLeaseService.process(starts);
+        long batchNanos = System.nanoTime() - batchStart;
+
+        logger.info("Started {} leases: sequential {} ms, batch {} ms.",
+                LEASES, sequentialNanos / 1_000_000, batchNanos / 1_000_000);
+        assertEquals(LEASES, started.getSucceeded());
+        assertEquals(0, started.getFailed());
+        for (String vehicleId : batchVehicles) {
+            assertEquals(VehicleCurrentStatus.ON_LEASE, vehicleRepository.findById(vehicleId).orElseThrow().getCurrentStatus());
+        }
+        assertEquals(1, customerRepository.findById(batchCustomers.get(0)).orElseThrow().getActiveLeases());
+
+        List<Operation> ends = new ArrayList<>();
+        started.getResults().forEach(result -> ends.add(operation(Action.END, null, null, result.leaseId())));
+        // A lease ended twice in the same batch fails only the second time.
+        ends.add(operation(Action.END, null, null, started.getResults().get(0).leaseId()));
+        BulkLeaseReport ended = bulkLeaseService.process(ends);
+
+        assertEquals(LEASES, ended.getSucceeded());
+        assertEquals(1, ended.getFailed());
+        assertEquals(VehicleCurrentStatus.IDEAL, vehicleRepository.findById(batchVehicles.get(0)).orElseThrow().getCurrentStatus());
+        assertEquals(0, customerRepository.findById(batchCustomers.get(0)).orElseThrow().getActiveLeases());
+    }
+
+    @Test
+    void batch_shouldReportFailuresPerItem() {
+        List<String> customers = createCustomers(1);
+        List<String> vehicles = createVehicles(1);
+
+        BulkLeaseReport report = bulkLeaseService.process(List.of(
+                operation(Action.START, customers.get(0), vehicles.get(0), null),
+                operation(Action.START, customers.get(0), vehicles.get(0), null),
+                operation(Action.START, customers.get(0), "missing", null)));
+
+        assertEquals(1, report.getSucceeded());
+        assertFalse(report.getResults().get(1).success());
+        assertEquals("Vehicle not found", report.getResults().get(2).message());
+    }
+
+    @Test
+    void batch_shouldNotBeOvertakenByAHoldPlacedWhileItRuns() throws Exception {
+        List<String> customers = createCustomers(2);
+        String vehicleId = createVehicles(1).get(0);
+        CountDownLatch validated = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The batch joins an outer transaction, so its row locks stay held until the test lets it commit.
+            Future<BulkLeaseReport> batch = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                BulkLeaseReport report = bulkLeaseService.process(List.of(
+                        operation(Action.START, customers.get(0), vehicleId, null)));
+                validated.countDown();
+                awaitQuietly(commit);
+                return report;
+            }));
+            assertTrue(validated.await(10, TimeUnit.SECONDS));
+            Future<?> hold = executor.submit(() -> leaseHoldService.placeHold(customers.get(1), vehicleId));
+            Thread.sleep(200);
+            commit.countDown();
+
+            assertEquals(1, batch.get(10, TimeUnit.SECONDS).getSucceeded());
+            ExecutionException failed = assertThrows(ExecutionException.class, () -> hold.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(LeaseConflictException.class, failed.getCause());
+            assertFalse(leaseHoldService.isHeld(vehicleId));
+            assertEquals(VehicleCurrentStatus.ON_LEASE, vehicleRepository.findById(vehicleId).orElseThrow().getCurrentStatus());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> createCustomers(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EndCustomer customer = new EndCustomer();
+            customer.setEmail(UUID.randomUUID() + "@customer.test");
+            ids.add(customerRepository.save(customer).getId());
+        }
+        return ids;
+    }
+
+    private List<String> createVehicles(int count) {
+        VehicleOwnerInfo owner = new VehicleOwnerInfo();
+        owner.setEmail(UUID.randomUUID() + "@owner.test");
+        ownerRepository.save(owner);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            VehicleRentalInfo vehicle = new VehicleRentalInfo();
+            vehicle.setVehicleName("Fleet car " + i);
+            vehicle.setRegistrationNumber(UUID.randomUUID().toString().substring(0, 20));
+            vehicle.setVehicleYear(2024);
+            vehicle.setType("bulk");
+            vehicle.setSeatingCapacity(5);
+            vehicle.setDailyRentalPrice(50);
+            vehicle.setOwner(owner);
+            ids.add(vehicleRepository.save(vehicle).getId());
+        }
+        return ids;
+    }
+
+    private static Operation operation(Action action, String customerId, String vehicleId, String leaseId) {
+        Operation operation = new Operation();
+        operation.setAction(action);
+        operation.setCustomerId(customerId);
+        operation.setVehicleId(vehicleId);
+        operation.setLeaseId(leaseId);
+        return operation;
+    }
+}
@@ -0,0 +1,101 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.dto.LeaseHold;
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.service.owner.VehicleAvailabilityIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LeaseHoldServiceTest {
+
+    private final BookingCalendar bookingCalendar = mock(BookingCalendar.class);
+    private final Map<String, VehicleRentalInfo> rows = new HashMap<>();
+    private LeaseHoldService holdService;
+
+    @BeforeEach
+    void setUp() {
+        VehicleAvailabilityIndex availabilityIndex = mock(VehicleAvailabilityIndex.class);
+        EntityManager entityManager = mock(EntityManager.class);
+        for (String id : new String[]{"v1", "v2", "v3"}) {
+            VehicleRentalInfo vehicle = new VehicleRentalInfo();
+            vehicle.setId(id);
+            vehicle.setCurrentStatus(VehicleCurrentStatus.IDEAL);
+            when(availabilityIndex.findById(id)).thenReturn(Optional.of(vehicle));
+            // The locked row is a separate copy, so tests can let it drift from the index.
+            VehicleRentalInfo row = new VehicleRentalInfo();
+            row.setId(id);
+            row.setCurrentStatus(VehicleCurrentStatus.IDEAL);
+            rows.put(id, row);
+            when(entityManager.find(VehicleRentalInfo.class, id, LockModeType.PESSIMISTIC_WRITE)).thenReturn(row);
+        }
+        when(bookingCalendar.isFree(anyString(), any(), any())).thenReturn(true);
+        holdService = new LeaseHoldService(availabilityIndex, bookingCalendar, event -> { },
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 120, 2, 1000, 64);
+        ReflectionTestUtils.setField(holdService, "entityManager", entityManager);
+    }
+
+    @Test
+    void placeHold_shouldRejectSecondCustomer() {
+        LeaseHold hold = holdService.placeHold("c1", "v1");
+
+        assertThrows(LeaseConflictException.class, () -> holdService.placeHold("c2", "v1"));
+        assertTrue(holdService.isHeldByOther("v1", "c2"));
+        assertFalse(holdService.isHeldByOther("v1", "c1"));
+        assertEquals(hold.getHoldId(), holdService.placeHold("c1", "v1").getHoldId());
+    }
+
+    @Test
+    void placeHold_shouldLimitHoldsPerCustomer() {
+        holdService.placeHold("c1", "v1");
+        holdService.placeHold("c1", "v2");
+
+        assertThrows(IllegalArgumentException.class, () -> holdService.placeHold("c1", "v3"));
+    }
+
+    @Test
+    void release_shouldFreeVehicleAndCustomerSlot() {
+        LeaseHold hold = holdService.placeHold("c1", "v1");
+        holdService.placeHold("c1", "v2");
+
+        assertTrue(holdService.release(hold.getHoldId(), "c1"));
+
+        assertFalse(holdService.isHeld("v1"));
+        assertNotNull(holdService.placeHold("c1", "v3"));
+        assertThrows(LeaseConflictException.class, () -> holdService.requireHold(hold.getHoldId(), "c1"));
+    }
+
+    @Test
+    void placeHold_shouldRejectVehicleLeasedSinceTheIndexWasRefreshed() {
+        rows.get("v1").setCurrentStatus(VehicleCurrentStatus.ON_LEASE);
+
+        assertThrows(LeaseConflictException.class, () -> holdService.placeHold("c1", "v1"));
+        assertFalse(holdService.isHeld("v1"));
+        assertNotNull(holdService.placeHold("c1", "v2"));
+    }
+
+    @Test
+    void placeHold_shouldRejectVehicleBookedBeforeTheHoldExpires() {
+        when(bookingCalendar.isFree(eq("v1"), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+
+        assertThrows(LeaseConflictException.class, () -> holdService.placeHold("c1", "v1"));
+        assertFalse(holdService.isHeld("v1"));
+        // The rejected hold must not have used up one of the customer's slots.
+        holdService.placeHold("c1", "v2");
+        assertNotNull(holdService.placeHold("c1", "v3"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.trimblecars.leasemanagement.service.customer;
+
+import com.trimblecars.leasemanagement.exception.LeaseConflictException;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.service.customer.WaitlistQueue.Waiter;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistQueueTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistQueueTest.class);
+
+    @Test
+    void offer_shouldPickLongestWaitingMatch() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(new Waiter("e1", "c1", "SUV", 7, null));
+        queue.add(new Waiter("e2", "c2", "suv", null, 100.0));
+        queue.add(new Waiter("e3", "c3", "SUV", null, null));
+
+        Waiter first = queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> true);
+        Waiter second = queue.offer(vehicle("v2", "SUV", 5, 80), waiter -> true);
+
+        assertEquals("e2", first.entryId());
+        assertEquals("e3", second.entryId());
+        assertNull(queue.offer(vehicle("v3", "Sedan", 7, 50), waiter -> true));
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void offer_shouldKeepPlaceOfWaitersWhoseOfferFails() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(new Waiter("e1", "c1", "SUV", null, null));
+        queue.add(new Waiter("e2", "c2", "SUV", null, null));
+
+        Waiter offered = queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> !waiter.customerId().equals("c1"));
+
+        assertEquals("e2", offered.entryId());
+        assertEquals("e1", queue.offer(vehicle("v2", "SUV", 5, 80), waiter -> true).entryId());
+    }
+
+    @Test
+    void offer_shouldReachMatchingWaiterBehindManyNonMatchingOnes() {
+        WaitlistQueue queue = new WaitlistQueue();
+        for (int i = 0; i < 1_000; i++) {
+            queue.add(new Waiter("big" + i, "c" + i, "SUV", 8, null));
+            queue.add(new Waiter("cheap" + i, "d" + i, "SUV", null, 20.0));
+        }
+        queue.add(new Waiter("match", "c-match", "SUV", 5, 100.0));
+
+        Waiter offered = queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> true);
+
+        assertEquals("match", offered.entryId());
+        assertEquals(2_000, queue.size());
+    }
+
+    @Test
+    void offer_shouldRunTryOfferOutsideTheQueueLock() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(new Waiter("e1", "c1", "SUV", null, null));
+
+        Waiter offered = queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> {
+            // Would time out if the offer held the SUV queue's monitor.
+            assertDoesNotThrow(() -> CompletableFuture
+                    .runAsync(() -> queue.add(new Waiter("e2", "c2", "SUV", null, null)))
+                    .get(5, TimeUnit.SECONDS));
+            return true;
+        });
+
+        assertEquals("e1", offered.entryId());
+        assertEquals("e2", queue.offer(vehicle("v2", "SUV", 5, 80), waiter -> true).entryId());
+    }
+
+    @Test
+    void offer_shouldKeepPlaceAndStopWhenTryOfferThrows() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(new Waiter("e1", "c1", "SUV", null, null));
+        queue.add(new Waiter("e2", "c2", "SUV", null, null));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(LeaseConflictException.class, () -> queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> {
+            attempts.incrementAndGet();
+            throw new LeaseConflictException("Vehicle is held by another customer.");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(2, queue.size());
+        assertEquals("e1", queue.offer(vehicle("v2", "SUV", 5, 80), waiter -> true).entryId());
+    }
+
+    @Test
+    void remove_shouldDropCancelledEntry() {
+        WaitlistQueue queue = new WaitlistQueue();
+        queue.add(new Waiter("e1", "c1", "SUV", null, null));
+
+        assertTrue(queue.remove("e1"));
+        assertFalse(queue.remove("e1"));
+        assertNull(queue.offer(vehicle("v1", "SUV", 5, 80), waiter -> true));
+    }
+
+    @Test
+    void offer_shouldAssignEachWaiterOnceUnderConcurrentReleases() throws Exception {
+        int waiters = 5_000;
+        WaitlistQueue queue = new WaitlistQueue();
+        for (int i = 0; i < waiters; i++) {
+            queue.add(new Waiter("e" + i, "c" + i, i % 2 == 0 ? "SUV" : "Sedan", null, null));
+        }
+
+        Set<String> offered = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        long startNanos = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < waiters; i++) {
+                VehicleRentalInfo vehicle = vehicle("v" + i, i % 2 == 0 ? "SUV" : "Sedan", 5, 80);
+                futures.add(pool.submit(() -> {
+                    Waiter waiter = queue.offer(vehicle, candidate -> true);
+                    if (waiter != null && !offered.add(waiter.entryId())) {
+                        duplicates.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        logger.info("Matched {} waitlisted customers in {} s ({} offers/s).",
+                offered.size(), String.format("%.3f", seconds), Math.round(waiters / seconds));
+
+        assertEquals(0, duplicates.get());
+        assertEquals(waiters, offered.size());
+        assertEquals(0, queue.size());
+    }
+
+    private static VehicleRentalInfo vehicle(String id, String type, int seats, double price) {
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setId(id);
+        vehicle.setType(type);
+        vehicle.setSeatingCapacity(seats);
+        vehicle.setDailyRentalPrice(price);
+        return vehicle;
+    }
+}
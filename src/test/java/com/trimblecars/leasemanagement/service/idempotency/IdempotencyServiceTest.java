@@ -0,0 +1,126 @@
+package com.trimblecars.leasemanagement.service.idempotency;
+
+import com.trimblecars.leasemanagement.model.idempotency.IdempotentResponse;
+import com.trimblecars.leasemanagement.repository.idempotency.IdempotentResponseRepository;
+import com.trimblecars.leasemanagement.service.idempotency.IdempotencyService.StoredResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotentResponseRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findLive(anyString(), any())).thenReturn(Optional.empty());
+        idempotencyService = new IdempotencyService(repository, transactionManager, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    @Test
+    void complete_shouldStoreResponseForLaterRetries() {
+        assertNull(idempotencyService.begin("k1"));
+        idempotencyService.complete("k1", response(200));
+
+        assertEquals(200, idempotencyService.find("k1").statusCode());
+        verify(repository).save(any(IdempotentResponse.class));
+    }
+
+    @Test
+    void complete_shouldNotStoreServerErrors() {
+        assertNull(idempotencyService.begin("k1"));
+        idempotencyService.complete("k1", response(503));
+
+        assertNull(idempotencyService.find("k1"));
+        assertNull(idempotencyService.begin("k1"));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void find_shouldFallBackToDatabase() {
+        IdempotentResponse row = new IdempotentResponse();
+        row.setFingerprint("f");
+        row.setStatusCode(409);
+        row.setBody(new byte[0]);
+        row.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(repository.findLive(eq("k1"), any())).thenReturn(Optional.of(row));
+
+        assertEquals(409, idempotencyService.find("k1").statusCode());
+        idempotencyService.find("k1");
+        verify(repository, times(1)).findLive(eq("k1"), any());
+    }
+
+    @Test
+    void begin_shouldCollapseConcurrentDuplicatesIntoOneExecution() throws Exception {
+        int duplicates = 32;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] results = new CompletableFuture<?>[duplicates];
+            for (int i = 0; i < duplicates; i++) {
+                results[i] = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        CompletableFuture<StoredResponse> running = idempotencyService.begin("k1");
+                        if (running != null) {
+                            return running.get(5, TimeUnit.SECONDS);
+                        }
+                        executions.incrementAndGet();
+                        Thread.sleep(20);
+                        StoredResponse response = response(200);
+                        idempotencyService.complete("k1", response);
+                        return response;
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }, pool);
+            }
+            start.countDown();
+            CompletableFuture.allOf(results).get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void scopedKey_shouldDifferPerCaller() {
+        String first = IdempotencyService.scopedKey("Bearer a", "POST", "/api/customers/lease/start", "key");
+        String second = IdempotencyService.scopedKey("Bearer b", "POST", "/api/customers/lease/start", "key");
+
+        assertNotEquals(first, second);
+        assertEquals(64, first.length());
+    }
+
+    private static StoredResponse response(int status) {
+        return new StoredResponse(IdempotencyService.fingerprint("vehicleId=v1", new byte[0]), status,
+                "application/json", "{\"success\":true}".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import com.trimblecars.leasemanagement.repository.owner.VehicleRentalInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VehicleAvailabilityIndexTest {
+
+    private VehicleRentalInfoRepository vehicleRepository;
+    private VehicleAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository = mock(VehicleRentalInfoRepository.class);
+        when(vehicleRepository.streamAll()).thenReturn(Stream.of(
+                vehicle("v1", VehicleCurrentStatus.IDEAL, 0L),
+                vehicle("v2", VehicleCurrentStatus.ON_LEASE, 0L)));
+        index = new VehicleAvailabilityIndex(vehicleRepository, List.of());
+        index.warm();
+    }
+
+    @Test
+    void findByStatus_shouldServeFromMemoryOnceWarmed() {
+        List<VehicleRentalInfo> available = index.findByStatus(VehicleCurrentStatus.IDEAL);
+
+        assertEquals(1, available.size());
+        assertEquals("v1", available.get(0).getId());
+        verify(vehicleRepository, never()).findByCurrentStatus(any());
+    }
+
+    @Test
+    void refresh_shouldMoveVehicleBetweenStatuses() {
+        index.refresh(vehicle("v1", VehicleCurrentStatus.ON_LEASE, 1L));
+
+        assertTrue(index.findByStatus(VehicleCurrentStatus.IDEAL).isEmpty());
+        assertEquals(2, index.findByStatus(VehicleCurrentStatus.ON_LEASE).size());
+    }
+
+    @Test
+    void refresh_shouldIgnoreOlderSnapshot() {
+        index.refresh(vehicle("v1", VehicleCurrentStatus.ON_LEASE, 2L));
+        index.refresh(vehicle("v1", VehicleCurrentStatus.IDEAL, 1L));
+
+        assertTrue(index.findByStatus(VehicleCurrentStatus.IDEAL).isEmpty());
+    }
+
+    @Test
+    void refresh_shouldNotifyListenersAfterTheSnapshotIsStored() {
+        List<VehicleCurrentStatus> seen = new ArrayList<>();
+        VehicleAvailabilityIndex[] notifying = new VehicleAvailabilityIndex[1];
+        VehicleSnapshotListener listener = new VehicleSnapshotListener() {
+            @Override
+            public void onVehicleChanged(VehicleRentalInfo vehicle) {
+                // Reads back through the index, which a listener called inside the map update could not see.
+                seen.add(notifying[0].findById(vehicle.getId()).orElseThrow().getCurrentStatus());
+            }
+
+            @Override
+            public void onVehicleRemoved(String vehicleId) {
+                seen.add(notifying[0].findById(vehicleId).isPresent() ? VehicleCurrentStatus.IDEAL : null);
+            }
+        };
+        when(vehicleRepository.streamAll()).thenReturn(Stream.empty());
+        notifying[0] = new VehicleAvailabilityIndex(vehicleRepository, List.of(listener));
+        notifying[0].warm();
+
+        notifying[0].refresh(vehicle("v1", VehicleCurrentStatus.IDEAL, 0L));
+        notifying[0].refresh(vehicle("v1", VehicleCurrentStatus.ON_LEASE, 1L));
+        notifying[0].refresh(vehicle("v1", VehicleCurrentStatus.IDEAL, 0L));
+        notifying[0].remove("v1");
+
+        assertEquals(Arrays.asList(VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE, null), seen);
+    }
+
+    @Test
+    void remove_shouldDropVehicle() {
+        index.remove("v1");
+
+        assertTrue(index.findByStatus(VehicleCurrentStatus.IDEAL).isEmpty());
+    }
+
+    private static VehicleRentalInfo vehicle(String id, VehicleCurrentStatus status, Long version) {
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setId(id);
+        vehicle.setCurrentStatus(status);
+        vehicle.setVersion(version);
+        return vehicle;
+    }
+}
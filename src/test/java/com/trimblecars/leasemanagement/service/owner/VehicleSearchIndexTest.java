@@ -0,0 +1,111 @@
+package com.trimblecars.leasemanagement.service.owner;
+
+import com.trimblecars.leasemanagement.dto.VehicleSearchRequest;
+import com.trimblecars.leasemanagement.dto.VehicleSearchResult;
+import com.trimblecars.leasemanagement.model.owner.VehicleCurrentStatus;
+import com.trimblecars.leasemanagement.model.owner.VehicleRentalInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleSearchIndexTest {
+
+    private VehicleSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VehicleSearchIndex();
+        index.onVehicleChanged(vehicle("v1", "Toyota", "Petrol", 40.0, VehicleCurrentStatus.IDEAL));
+        index.onVehicleChanged(vehicle("v2", "Toyota", "Diesel", 60.0, VehicleCurrentStatus.IDEAL));
+        index.onVehicleChanged(vehicle("v3", "Honda", "Petrol", 55.0, VehicleCurrentStatus.IDEAL));
+        index.onVehicleChanged(vehicle("v4", "Honda", "Petrol", 50.0, VehicleCurrentStatus.ON_LEASE));
+        index.onWarmed();
+    }
+
+    @Test
+    void search_shouldCombineFiltersAndPriceRange() {
+        VehicleSearchRequest request = new VehicleSearchRequest();
+        request.setMake("toyota");
+        request.setMaxPrice(50.0);
+
+        VehicleSearchResult result = index.search(request);
+
+        assertEquals(1, result.getTotal());
+        assertEquals("v1", result.getVehicles().get(0).getId());
+    }
+
+    @Test
+    void search_shouldIncludeBothEndsOfThePriceRange() {
+        index.onVehicleChanged(vehicle("v2", "Toyota", "Diesel", 45.0, VehicleCurrentStatus.IDEAL));
+        VehicleSearchRequest request = new VehicleSearchRequest();
+        request.setMinPrice(45.0);
+        request.setMaxPrice(55.0);
+
+        VehicleSearchResult result = index.search(request);
+
+        assertEquals(List.of("v2", "v3", "v4"), result.getVehicles().stream().map(VehicleRentalInfo::getId).sorted().toList());
+    }
+
+    @Test
+    void search_shouldCountFacetsWithoutTheirOwnFilter() {
+        VehicleSearchRequest request = new VehicleSearchRequest();
+        request.setMake("Toyota");
+
+        VehicleSearchResult result = index.search(request);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(2, result.getFacets().get("make").get("Toyota"));
+        assertEquals(1, result.getFacets().get("make").get("Honda"));
+        assertEquals(1, result.getFacets().get("fuelType").get("Petrol"));
+        assertEquals(1, result.getFacets().get("fuelType").get("Diesel"));
+    }
+
+    @Test
+    void onVehicleChanged_shouldReindexUpdatedVehicle() {
+        index.onVehicleChanged(vehicle("v3", "Honda", "Petrol", 55.0, VehicleCurrentStatus.ON_LEASE));
+        index.onVehicleRemoved("v1");
+
+        VehicleSearchResult result = index.search(new VehicleSearchRequest());
+
+        assertEquals(1, result.getTotal());
+        assertEquals("v2", result.getVehicles().get(0).getId());
+    }
+
+    @Test
+    void findByPrice_shouldSweepInPriceOrderAndPage() {
+        VehicleSearchResult firstPage = index.findByPrice(EnumSet.of(VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE),
+                Set.of("v3"), false, 0, 2);
+        VehicleSearchResult secondPage = index.findByPrice(EnumSet.of(VehicleCurrentStatus.IDEAL, VehicleCurrentStatus.ON_LEASE),
+                Set.of("v3"), false, 1, 2);
+
+        assertEquals(3, firstPage.getTotal());
+        assertEquals(3, secondPage.getTotal());
+        assertEquals(List.of("v1", "v4"), firstPage.getVehicles().stream().map(VehicleRentalInfo::getId).toList());
+        assertEquals(List.of("v2"), secondPage.getVehicles().stream().map(VehicleRentalInfo::getId).toList());
+    }
+
+    @Test
+    void findByPrice_shouldSweepDescendingAndIgnoreUnknownExclusions() {
+        VehicleSearchResult result = index.findByPrice(EnumSet.of(VehicleCurrentStatus.IDEAL),
+                Set.of("v2", "unknown"), true, 0, 10);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("v3", "v1"), result.getVehicles().stream().map(VehicleRentalInfo::getId).toList());
+    }
+
+    private static VehicleRentalInfo vehicle(String id, String make, String fuelType, double price,
+                                             VehicleCurrentStatus status) {
+        VehicleRentalInfo vehicle = new VehicleRentalInfo();
+        vehicle.setId(id);
+        vehicle.setMake(make);
+        vehicle.setFuelType(fuelType);
+        vehicle.setDailyRentalPrice(price);
+        vehicle.setCurrentStatus(status);
+        return vehicle;
+    }
+}
@@ -0,0 +1,71 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private static final long START = TimeUnit.HOURS.toNanos(5);
+
+    // 5 attempts per email and 1000 per IP a minute, so the email dimension is the one under test.
+    private LoginThrottle throttle(int buckets) {
+        return new LoginThrottle(5, 5, 1000, 1000, buckets, 42L, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void tryAcquire_shouldRejectOnceTheBurstIsUsedAndReportTheWait() {
+        LoginThrottle throttle = throttle(1024);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, throttle.tryAcquire("victim@example.com", "10.0.0.1", START));
+        }
+
+        long waitMillis = throttle.tryAcquire("Victim@Example.com", "10.0.0.1", START);
+
+        // One attempt is refilled every 12 seconds.
+        assertTrue(waitMillis > 11_000 && waitMillis <= 12_001, "wait was " + waitMillis);
+        assertEquals(0, throttle.tryAcquire("other@example.com", "10.0.0.1", START));
+    }
+
+    @Test
+    void tryAcquire_shouldRefillAnIdleBucket() {
+        LoginThrottle throttle = throttle(1024);
+        for (int i = 0; i < 5; i++) {
+            throttle.tryAcquire("idle@example.com", "10.0.0.1", START);
+        }
+        assertTrue(throttle.tryAcquire("idle@example.com", "10.0.0.1", START) > 0);
+
+        long later = START + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, throttle.tryAcquire("idle@example.com", "10.0.0.1", later));
+        }
+    }
+
+    @Test
+    void tryAcquire_shouldNotLockOutNewEmailsWhenFlooded() {
+        LoginThrottle throttle = throttle(65536);
+        // A spray of attacker-chosen emails, each exhausting its own burst.
+        for (int i = 0; i < 5000; i++) {
+            for (int attempt = 0; attempt < 6; attempt++) {
+                throttle.tryAcquire("spray" + i + "@example.com", null, START);
+            }
+        }
+
+        // Only the few emails that hash onto a sprayed bucket are affected; nothing funnels into a shared bucket.
+        int allowed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (throttle.tryAcquire("legit" + i + "@example.com", null, START) == 0) {
+                allowed++;
+            }
+        }
+        assertTrue(allowed >= 850, "allowed " + allowed + " of 1000");
+
+        long later = START + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, throttle.tryAcquire("legit" + i + "@example.com", null, later));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trimblecars.leasemanagement.dto.BulkImportReport;
+import com.trimblecars.leasemanagement.dto.UserRequest;
+import com.trimblecars.leasemanagement.exception.ResourceAlreadyExistsException;
+import com.trimblecars.leasemanagement.model.auth.User;
+import com.trimblecars.leasemanagement.model.auth.UserRole;
+import com.trimblecars.leasemanagement.model.customer.EndCustomer;
+import com.trimblecars.leasemanagement.model.owner.VehicleOwnerInfo;
+import com.trimblecars.leasemanagement.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RegistrationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private RegistrationService registrationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registrationService = new RegistrationService(userRepository, registeredEmailFilter, passwordEncoder,
+                transactionManager, new ObjectMapper(), 500, 2);
+        ReflectionTestUtils.setField(registrationService, "entityManager", entityManager);
+        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+    }
+
+    @AfterEach
+    void tearDown() {
+        registrationService.destroy();
+    }
+
+    @Test
+    void register_shouldPersistUserAndProfileInOneTransaction() {
+        UserRequest request = request("owner@example.com", UserRole.ROLE_OWNER);
+        when(registeredEmailFilter.mightBeRegisteredUser("owner@example.com")).thenReturn(false);
+
+        User user = registrationService.register(request);
+
+        assertEquals("owner@example.com", user.getEmail());
+        assertEquals("hashedPassword", user.getPassword());
+        verify(entityManager).persist(any(User.class));
+        verify(entityManager).persist(any(VehicleOwnerInfo.class));
+        verify(transactionManager, times(1)).commit(any());
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void register_shouldRejectExistingEmail() {
+        UserRequest request = request("taken@example.com", UserRole.ROLE_CUSTOMER);
+        when(registeredEmailFilter.mightBeRegisteredUser("taken@example.com")).thenReturn(true);
+        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> registrationService.register(request));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void importUsers_shouldImportValidRowsAndReportFailures() throws Exception {
+        String ndjson = """
+                {"username":"alice","email":"alice@example.com","password":"password123","role":"ROLE_CUSTOMER"}
+                {"username":"bob","email":"taken@example.com","password":"password123","role":"ROLE_CUSTOMER"}
+                not-json
+                {"username":"carol","email":"alice@example.com","password":"password123","role":"ROLE_CUSTOMER"}
+                """;
+        when(registeredEmailFilter.mightBeRegisteredUser(anyString())).thenReturn(true);
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+
+        BulkImportReport report = registrationService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "ndjson");
+
+        assertEquals(4, report.getTotalRows());
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).line());
+        verify(entityManager, times(1)).persist(any(EndCustomer.class));
+        verify(entityManager).flush();
+    }
+
+    @Test
+    void importUsers_shouldParseQuotedCsvFieldsAndKeepPasswordsVerbatim() throws Exception {
+        String csv = "username,email,password,role\r\n"
+                + "\"Smith, Alice\",alice@example.com,\" pa,ss \"\"word\"\" \",ROLE_CUSTOMER\r\n"
+                + "bob,bob@example.com,\"multi\nline pass\",ROLE_OWNER\n"
+                + "carol,carol@example.com,\"unclosed\"x,ROLE_CUSTOMER\n"
+                + "dave,dave@example.com,password123,ROLE_CUSTOMER\n";
+        when(registeredEmailFilter.mightBeRegisteredUser(anyString())).thenReturn(false);
+
+        BulkImportReport report = registrationService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv");
+
+        assertEquals(4, report.getTotalRows());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        // The multi-line field of row 3 spans two physical lines, so carol is on line 5.
+        assertEquals(5, report.getErrors().get(0).line());
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager, atLeastOnce()).persist(persisted.capture());
+        List<String> usernames = persisted.getAllValues().stream()
+                .filter(User.class::isInstance)
+                .map(entity -> ((User) entity).getUsername())
+                .toList();
+        assertEquals(List.of("Smith, Alice", "bob", "dave"), usernames);
+        verify(passwordEncoder).encode(" pa,ss \"word\" ");
+        verify(passwordEncoder).encode("multi\nline pass");
+        verify(passwordEncoder).encode("password123");
+    }
+
+    private UserRequest request(String email, UserRole role) {
+        UserRequest request = new UserRequest();
+        request.setUsername("testUser");
+        request.setEmail(email);
+        request.setPassword("password123");
+        request.setRole(role);
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.trimblecars.leasemanagement.service.user;
+
+import com.trimblecars.leasemanagement.config.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceTest {
+
+    private static final int EXPECTED_TOKENS = 16;
+
+    private final JwtUtil jwtUtil = new JwtUtil(1000);
+    private final TokenRevocationService revocationService =
+            new TokenRevocationService(jwtUtil, EXPECTED_TOKENS, 0.01, new SimpleMeterRegistry());
+
+    @Test
+    void revoke_shouldKeepEveryLiveTokenRevokedPastCapacity() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < EXPECTED_TOKENS * 10; i++) {
+            String token = jwtUtil.generateToken("user-" + i, "user" + i + "@example.com", "ROLE_CUSTOMER");
+            tokens.add(token);
+            revocationService.revoke(token);
+        }
+
+        assertEquals(tokens.size(), revocationService.size());
+        tokens.forEach(token -> assertTrue(revocationService.isRevoked(token)));
+
+        revocationService.rebuildFilter();
+        tokens.forEach(token -> assertTrue(revocationService.isRevoked(token)));
+    }
+
+    @Test
+    void isRevoked_shouldBeFalseForTokensNeverRevoked() {
+        revocationService.revoke(jwtUtil.generateToken("user-a", "a@example.com", "ROLE_CUSTOMER"));
+
+        assertFalse(revocationService.isRevoked(jwtUtil.generateToken("user-b", "b@example.com", "ROLE_CUSTOMER")));
+    }
+}